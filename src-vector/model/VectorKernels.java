@@ -0,0 +1,120 @@
+package model;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector kernels - the small kernels (see ColumnKernels) written with the Vector API, a vector of rows at a time
+ * Compiling and running this class needs --add-modules jdk.incubator.vector, so it has a source root of its own,
+ * and ColumnKernels only loads it when the module is there
+ */
+final class VectorKernels implements ColumnKernels.SmallKernels {
+
+  // fewer lanes than this and the scalar loops are as fast
+  private static final int MIN_LANES = 4;
+
+  private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED.length() >= MIN_LANES
+    ? LongVector.SPECIES_PREFERRED
+    : LongVector.SPECIES_256;
+  // the dates and categories of as many rows as there are amounts in a vector of LONGS
+  private static final VectorSpecies<Integer> INTS =
+    IntVector.SPECIES_PREFERRED.withShape(VectorShape.forBitSize(LONGS.length() * Integer.SIZE));
+  private static final VectorSpecies<Short> SHORTS =
+    ShortVector.SPECIES_PREFERRED.withShape(VectorShape.forBitSize(LONGS.length() * Short.SIZE));
+
+  // EFFECTS: throws UnsupportedOperationException if the CPU's vectors are too narrow to be worth using
+  VectorKernels() {
+    if (LongVector.SPECIES_PREFERRED.length() < MIN_LANES) {
+      throw new UnsupportedOperationException("Vectors of " + LongVector.SPECIES_PREFERRED.length() + " longs");
+    }
+  }
+
+  @Override
+  public boolean aggregate(
+    int[] dates, long[] cents, short[] categories, int from, int to,
+    long firstDay, long lastDay, int categoryId, ColumnKernels.Aggregate aggregate
+  ) {
+    boolean anyCategory = categoryId == ColumnKernels.ANY_CATEGORY;
+    // NOTE: no int date or short category can match then, so nothing is added, and that's exact no matter the amounts
+    if (firstDay > lastDay || firstDay > Integer.MAX_VALUE || lastDay < Integer.MIN_VALUE) return true;
+    if (!anyCategory && (short) categoryId != categoryId) return true;
+    int first = (int) Math.max(firstDay, Integer.MIN_VALUE);
+    int last = (int) Math.min(lastDay, Integer.MAX_VALUE);
+    short category = (short) categoryId;
+
+    int count = 0;
+    LongVector sums = LongVector.zero(LONGS);
+    LongVector magnitudes = LongVector.zero(LONGS); // every bit set in the magnitude of some amount, in some lane
+    LongVector mins = LongVector.broadcast(LONGS, Long.MAX_VALUE);
+    LongVector maxes = LongVector.broadcast(LONGS, Long.MIN_VALUE);
+    int i = from;
+    for (int bound = from + LONGS.loopBound(to - from); i < bound; i += LONGS.length()) {
+      IntVector days = IntVector.fromArray(INTS, dates, i);
+      VectorMask<Long> matches = days.compare(VectorOperators.GE, first)
+        .and(days.compare(VectorOperators.LE, last))
+        .cast(LONGS);
+      if (!anyCategory) {
+        matches = matches.and(ShortVector.fromArray(SHORTS, categories, i).compare(VectorOperators.EQ, category).cast(LONGS));
+      }
+      LongVector amounts = LongVector.fromArray(LONGS, cents, i);
+      count += matches.trueCount();
+      sums = sums.add(amounts, matches);
+      magnitudes = magnitudes.or(amounts.lanewise(VectorOperators.XOR, amounts.lanewise(VectorOperators.ASHR, 63)));
+      mins = mins.lanewise(VectorOperators.MIN, amounts, matches);
+      maxes = maxes.lanewise(VectorOperators.MAX, amounts, matches);
+    }
+    if (i < to) {
+      // NOTE: the rows left over are one vector with the lanes past the end turned off
+      VectorMask<Long> inRange = LONGS.indexInRange(i, to);
+      IntVector days = IntVector.fromArray(INTS, dates, i, inRange.cast(INTS));
+      VectorMask<Long> matches = days.compare(VectorOperators.GE, first)
+        .and(days.compare(VectorOperators.LE, last))
+        .cast(LONGS)
+        .and(inRange);
+      if (!anyCategory) {
+        ShortVector rowCategories = ShortVector.fromArray(SHORTS, categories, i, inRange.cast(SHORTS));
+        matches = matches.and(rowCategories.compare(VectorOperators.EQ, category).cast(LONGS));
+      }
+      LongVector amounts = LongVector.fromArray(LONGS, cents, i, inRange);
+      count += matches.trueCount();
+      sums = sums.add(amounts, matches);
+      magnitudes = magnitudes.or(amounts.lanewise(VectorOperators.XOR, amounts.lanewise(VectorOperators.ASHR, 63)));
+      mins = mins.lanewise(VectorOperators.MIN, amounts, matches);
+      maxes = maxes.lanewise(VectorOperators.MAX, amounts, matches);
+    }
+    if (!ColumnKernels.isSmall(magnitudes.reduceLanes(VectorOperators.OR))) return false;
+
+    aggregate.count += count;
+    aggregate.sum.addCents(sums.reduceLanes(VectorOperators.ADD));
+    aggregate.min = Math.min(aggregate.min, mins.reduceLanes(VectorOperators.MIN));
+    aggregate.max = Math.max(aggregate.max, maxes.reduceLanes(VectorOperators.MAX));
+    return true;
+  }
+
+  @Override
+  public boolean sum(long[] cents, int from, int to, Money.Sum sum) {
+    LongVector sums = LongVector.zero(LONGS);
+    LongVector magnitudes = LongVector.zero(LONGS);
+    int i = from;
+    for (int bound = from + LONGS.loopBound(to - from); i < bound; i += LONGS.length()) {
+      LongVector amounts = LongVector.fromArray(LONGS, cents, i);
+      sums = sums.add(amounts);
+      magnitudes = magnitudes.or(amounts.lanewise(VectorOperators.XOR, amounts.lanewise(VectorOperators.ASHR, 63)));
+    }
+    if (i < to) {
+      LongVector amounts = LongVector.fromArray(LONGS, cents, i, LONGS.indexInRange(i, to));
+      sums = sums.add(amounts);
+      magnitudes = magnitudes.or(amounts.lanewise(VectorOperators.XOR, amounts.lanewise(VectorOperators.ASHR, 63)));
+    }
+    if (!ColumnKernels.isSmall(magnitudes.reduceLanes(VectorOperators.OR))) return false;
+
+    sum.addCents(sums.reduceLanes(VectorOperators.ADD));
+    return true;
+  }
+
+}
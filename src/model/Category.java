@@ -1,17 +1,51 @@
 package model;
 
+import java.util.Locale;
 import java.util.Objects;
 
 public abstract class Category {
 
+  // id of this category in the category registry, or -1 if this instance isn't the registered one
+  private volatile int id = -1;
+  // cached hashCode, names never change
+  private int hash;
+
   public abstract String getName();
 
   public abstract boolean isCustom();
 
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the small integer id shared by every category equal to this one (only stable within a single run)
+  int getId() {
+    int id = this.id;
+    return id >= 0 ? id : CategoryRegistry.intern(this).getId();
+  }
+
+  void setId(int id) {
+    this.id = id;
+  }
+
+  boolean isRegistered() {
+    return id >= 0;
+  }
+
+  // NOTE: names are compared ignoring case, just like fromName
   @Override
   public boolean equals(Object obj) {
-    return obj instanceof Category that
-        && Objects.equals(this.getName(), that.getName());
+    if (this == obj) return true;
+    if (!(obj instanceof Category that)) return false;
+    if (this.isRegistered() && that.isRegistered()) return this.id == that.id;
+    return Objects.equals(keyOf(this.getName()), keyOf(that.getName()));
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = this.hash;
+    if (hash == 0) {
+      hash = Objects.hashCode(keyOf(getName()));
+      this.hash = hash;
+    }
+    return hash;
   }
 
   @Override
@@ -23,14 +57,22 @@ public abstract class Category {
     }
   }
 
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the one shared instance of the category with the given name (ignoring case),
+  //          which is a known category if one matches, or a custom category otherwise
   public static Category fromName(String name) {
     Objects.requireNonNull(name);
-    return KnownCategory.KNOWN_CATEGORIES
-      .stream()
-      .map(category -> (Category) category)
-      .filter(category -> category.getName().equalsIgnoreCase(name))
-      .findFirst()
-      .orElseGet(() -> new CustomCategory(name));
+    return CategoryRegistry.intern(name);
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the one shared instance of the category with the given id, throws if no category has that id
+  static Category fromId(int id) {
+    return CategoryRegistry.fromId(id);
+  }
+
+  static String keyOf(String name) {
+    return name == null ? null : name.toLowerCase(Locale.ROOT);
   }
 
 }
@@ -0,0 +1,68 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Category registry - interns categories so that every name (ignoring case) maps to exactly one instance,
+ * and gives each of those instances a small integer id
+ * NOTE: ids are handed out in registration order, so they are only stable within a single run of the application
+ */
+final class CategoryRegistry {
+
+  private CategoryRegistry() { throw new AssertionError(); }
+
+  // canonical category for each lower-cased name
+  private static final ConcurrentHashMap<String, Category> CATEGORIES = new ConcurrentHashMap<>();
+  // canonical category for each exact spelling we've seen, so repeated lookups don't have to lower-case the name
+  private static final ConcurrentHashMap<String, Category> SPELLINGS = new ConcurrentHashMap<>();
+
+  private static final Object LOCK = new Object();
+  // canonical category for each id, replaced (never modified) when a category is registered
+  private static volatile Category[] categoriesById = new Category[0];
+
+  static {
+    // NOTE: registered first, so the known categories always get ids 0 to 9, in order
+    for (KnownCategory category : KnownCategory.KNOWN_CATEGORIES) intern(category);
+  }
+
+  // MODIFIES: this
+  // EFFECTS: returns the canonical category with the given name (ignoring case),
+  //          creating and registering a new custom category if there isn't one yet
+  static Category intern(String name) {
+    Category category = SPELLINGS.get(name);
+    if (category == null) {
+      category = CATEGORIES.computeIfAbsent(Category.keyOf(name), key -> register(new CustomCategory(name)));
+      SPELLINGS.putIfAbsent(name, category);
+    }
+    return category;
+  }
+
+  // MODIFIES: this
+  // EFFECTS: returns the canonical category equal to the given category, registering it if there isn't one yet
+  static Category intern(Category category) {
+    if (category.isRegistered()) return category;
+    return CATEGORIES.computeIfAbsent(Category.keyOf(category.getName()), key -> register(category));
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the canonical category with the given id, throws if no category has that id
+  static Category fromId(int id) {
+    Category[] categories = categoriesById;
+    if (id < 0 || id >= categories.length) {
+      throw new IllegalArgumentException("No category has id " + id);
+    }
+    return categories[id];
+  }
+
+  private static Category register(Category category) {
+    synchronized (LOCK) {
+      Category[] categories = Arrays.copyOf(categoriesById, categoriesById.length + 1);
+      categories[categories.length - 1] = category;
+      category.setId(categories.length - 1);
+      categoriesById = categories;
+      return category;
+    }
+  }
+
+}
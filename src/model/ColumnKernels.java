@@ -0,0 +1,238 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Column kernels - the loops that scan CompactExpenses columns for totals, counts, minimums and maximums,
+ * and that add up the amounts MappedExpenses copies out of its file (through Money.Sum.addAllCents)
+ * The loops have no branches: whether a row matches is worked out with arithmetic and applied as a bit mask,
+ * so mispredictions never slow down a scan no matter how the matching rows are scattered
+ * Blocks of small amounts (nearly all of them) are scanned with SIMD instructions by VectorKernels when the
+ * jdk.incubator.vector module is there (run with --add-modules jdk.incubator.vector) and the CPU has wide enough
+ * vectors, and with the scalar loops below otherwise
+ */
+final class ColumnKernels {
+
+  // category id that matches every category
+  static final int ANY_CATEGORY = -1;
+  // rows scanned before the sum is folded into the total, few enough that the sums below can't overflow
+  private static final int BLOCK_SIZE = 1 << 29;
+  // amounts below 2^34 cents (about 170 million dollars) can be added up BLOCK_SIZE times in a long without overflowing
+  private static final int SMALL_AMOUNT_BITS = 34;
+
+  // the kernels for blocks of small amounts, VectorKernels if it can be used, ScalarKernels otherwise
+  private static final SmallKernels SMALL = loadSmallKernels();
+
+  private ColumnKernels() { throw new AssertionError(); }
+
+  /**
+   * Small kernels - the loops over blocks of at most BLOCK_SIZE rows that assume every amount is small,
+   * each adds what it found and returns true, unless an amount in the block isn't small (Money.NOT_CENTS isn't
+   * either), and then it returns false without changing anything
+   */
+  interface SmallKernels {
+    // adds the rows from index from to index to (exclusive) that match (see aggregate) to the aggregate
+    boolean aggregate(
+      int[] dates, long[] cents, short[] categories, int from, int to,
+      long firstDay, long lastDay, int categoryId, Aggregate aggregate
+    );
+
+    // adds the amounts from index from to index to (exclusive) to the sum
+    boolean sum(long[] cents, int from, int to, Money.Sum sum);
+  }
+
+  private static SmallKernels loadSmallKernels() {
+    // NOTE: without --add-modules the module isn't in the boot layer, and VectorKernels would fail to link
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return new ScalarKernels();
+    try {
+      // NOTE: VectorKernels is compiled from its own source root (src-vector), a build without it gets the scalar
+      //       loops, and so does a CPU whose vectors are too narrow to pay off (its constructor throws then)
+      return (SmallKernels) Class.forName("model.VectorKernels").getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | LinkageError e) {
+      return new ScalarKernels();
+    }
+  }
+
+  /**
+   * Aggregate - what the kernels found in the matching rows, amounts in cents
+   */
+  static final class Aggregate {
+    int count = 0;
+    final Money.Sum sum = new Money.Sum();
+    long min = Long.MAX_VALUE; // or Long.MAX_VALUE if nothing matched
+    long max = Long.MIN_VALUE; // or Long.MIN_VALUE if nothing matched
+
+    // MODIFIES: this
+    // EFFECTS: adds what was found in other rows to this aggregate, and returns this
+    Aggregate add(Aggregate other) {
+      count += other.count;
+      sum.add(other.sum);
+      min = Math.min(min, other.min);
+      max = Math.max(max, other.max);
+      return this;
+    }
+  }
+
+  // MODIFIES: aggregate
+  // EFFECTS: adds the rows from index from to index to (exclusive) of the columns that are dated from firstDay
+  //          to lastDay (inclusive), have the given category id (or any, for ANY_CATEGORY), and aren't Money.NOT_CENTS
+  static void aggregate(
+    int[] dates, long[] cents, short[] categories, int from, int to,
+    long firstDay, long lastDay, int categoryId, Aggregate aggregate
+  ) {
+    for (int start = from; start < to; ) {
+      int end = start + Math.min(to - start, BLOCK_SIZE);
+      // NOTE: almost every block only has small amounts, and then a plain sum is exact,
+      //       otherwise the block is scanned again with a sum that can't overflow
+      if (!SMALL.aggregate(dates, cents, categories, start, end, firstDay, lastDay, categoryId, aggregate)) {
+        aggregateExact(dates, cents, categories, null, start, end, firstDay, lastDay, categoryId, aggregate);
+      }
+      start = end;
+    }
+  }
+
+  // MODIFIES: aggregate
+  // EFFECTS: like aggregate, but for the rows with the given indexes, from index from to index to (exclusive) of rows
+  static void aggregate(
+    int[] dates, long[] cents, short[] categories, int[] rows, int from, int to,
+    long firstDay, long lastDay, int categoryId, Aggregate aggregate
+  ) {
+    for (int start = from; start < to; ) {
+      int end = start + Math.min(to - start, BLOCK_SIZE);
+      aggregateExact(dates, cents, categories, rows, start, end, firstDay, lastDay, categoryId, aggregate);
+      start = end;
+    }
+  }
+
+  // MODIFIES: sum
+  // EFFECTS: adds the amounts in cents from index from to index to (exclusive) to the sum, skipping Money.NOT_CENTS
+  static void sum(long[] cents, int from, int to, Money.Sum sum) {
+    for (int start = from; start < to; ) {
+      int end = start + Math.min(to - start, BLOCK_SIZE);
+      if (!SMALL.sum(cents, start, end, sum)) sumExact(cents, start, end, sum);
+      start = end;
+    }
+  }
+
+  /**
+   * Scalar kernels - the small kernels as plain loops, one row at a time
+   */
+  private static final class ScalarKernels implements SmallKernels {
+
+    @Override
+    public boolean aggregate(
+      int[] dates, long[] cents, short[] categories, int from, int to,
+      long firstDay, long lastDay, int categoryId, Aggregate aggregate
+    ) {
+      long anyCategory = categoryId == ANY_CATEGORY ? 0 : 1;
+      int count = 0;
+      long sum = 0;
+      long magnitudes = 0; // every bit set in the magnitude of some amount
+      long min = Long.MAX_VALUE;
+      long max = Long.MIN_VALUE;
+      for (int i = from; i < to; i++) {
+        long amount = cents[i];
+        long mask = -match(dates[i], categories[i], firstDay, lastDay, categoryId, anyCategory);
+        count -= (int) mask;
+        sum += amount & mask;
+        magnitudes |= amount ^ (amount >> 63);
+        min = Math.min(min, (amount & mask) | (Long.MAX_VALUE & ~mask));
+        max = Math.max(max, (amount & mask) | (Long.MIN_VALUE & ~mask));
+      }
+      if (!isSmall(magnitudes)) return false;
+
+      aggregate.count += count;
+      aggregate.sum.addCents(sum);
+      aggregate.min = Math.min(aggregate.min, min);
+      aggregate.max = Math.max(aggregate.max, max);
+      return true;
+    }
+
+    @Override
+    public boolean sum(long[] cents, int from, int to, Money.Sum sum) {
+      long total = 0;
+      long magnitudes = 0;
+      for (int i = from; i < to; i++) {
+        long amount = cents[i];
+        total += amount;
+        magnitudes |= amount ^ (amount >> 63);
+      }
+      if (!isSmall(magnitudes)) return false;
+
+      sum.addCents(total);
+      return true;
+    }
+
+  }
+
+  // true if the bits set in the magnitudes of a block's amounts (amount ^ (amount >> 63) for each) are all below
+  // SMALL_AMOUNT_BITS, so the block's sum fits in a long
+  static boolean isSmall(long magnitudes) {
+    return magnitudes >>> SMALL_AMOUNT_BITS == 0;
+  }
+
+  // adds the matching rows (of the given rows, or of every row if rows is null) to the aggregate,
+  // skipping Money.NOT_CENTS, with the sum split into halves that can't overflow: it's high * 2^32 + low,
+  // where high adds up the signed top 32 bits of each amount and low the unsigned bottom 32 bits
+  private static void aggregateExact(
+    int[] dates, long[] cents, short[] categories, int[] rows, int from, int to,
+    long firstDay, long lastDay, int categoryId, Aggregate aggregate
+  ) {
+    long anyCategory = categoryId == ANY_CATEGORY ? 0 : 1;
+    int count = 0;
+    long high = 0;
+    long low = 0;
+    long min = Long.MAX_VALUE;
+    long max = Long.MIN_VALUE;
+    for (int i = from; i < to; i++) {
+      int row = rows == null ? i : rows[i];
+      long amount = cents[row];
+      long inCents = ((amount ^ Money.NOT_CENTS) | -(amount ^ Money.NOT_CENTS)) >>> 63;
+      long mask = -(match(dates[row], categories[row], firstDay, lastDay, categoryId, anyCategory) & inCents);
+      count -= (int) mask;
+      high += (amount >> 32) & mask;
+      low += amount & 0xFFFF_FFFFL & mask;
+      min = Math.min(min, (amount & mask) | (Long.MAX_VALUE & ~mask));
+      max = Math.max(max, (amount & mask) | (Long.MIN_VALUE & ~mask));
+    }
+
+    aggregate.count += count;
+    addHalves(high, low, aggregate.sum);
+    aggregate.min = Math.min(aggregate.min, min);
+    aggregate.max = Math.max(aggregate.max, max);
+  }
+
+  // adds the amounts from index from to index to (exclusive) to the sum, skipping Money.NOT_CENTS,
+  // with the sum split into halves that can't overflow (see aggregateExact)
+  private static void sumExact(long[] cents, int from, int to, Money.Sum sum) {
+    long high = 0;
+    long low = 0;
+    for (int i = from; i < to; i++) {
+      long amount = cents[i];
+      long mask = -(((amount ^ Money.NOT_CENTS) | -(amount ^ Money.NOT_CENTS)) >>> 63);
+      high += (amount >> 32) & mask;
+      low += amount & 0xFFFF_FFFFL & mask;
+    }
+    addHalves(high, low, sum);
+  }
+
+  // adds high * 2^32 + low cents to the sum
+  private static void addHalves(long high, long low, Money.Sum sum) {
+    if (Math.abs(high) < 1L << 30) {
+      // NOTE: both halves are below 2^62 then, so the whole sum fits in a long
+      sum.addCents((high << 32) + low);
+    } else {
+      sum.addRest(new BigDecimal(BigInteger.valueOf(high).shiftLeft(32).add(BigInteger.valueOf(low)), Money.SCALE));
+    }
+  }
+
+  // 1 if the row is in the date range and category, 0 if it isn't, without branching
+  static long match(int day, int category, long firstDay, long lastDay, int categoryId, long anyCategory) {
+    // the sign bit is set if the day is before firstDay or after lastDay
+    long outside = ((day - firstDay) | (lastDay - day)) >>> 63;
+    long otherCategory = (((long) (category ^ categoryId) | -(long) (category ^ categoryId)) >>> 63) & anyCategory;
+    return (outside | otherCategory) ^ 1;
+  }
+
+}
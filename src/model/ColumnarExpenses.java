@@ -0,0 +1,44 @@
+package model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Columnar expenses - an immutable list of expenses stored column by column instead of as Expense objects
+ * Filters and totals read the columns they need directly, and an Expense is only created when one is asked for,
+ * so views share these lists instead of copying them (see MappedExpenses and CompactExpenses)
+ */
+public interface ColumnarExpenses extends List<Expense> {
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns true if the expenses in this list are in ascending order by date
+  boolean isDateOrdered();
+
+  // MODIFIES: NOTHING
+  // REQUIRES: that this list is date ordered
+  // EFFECTS: returns the index of the first expense dated on or after the given date
+  //          (or strictly after it, if after is true), or size() if there isn't one, in logarithmic time
+  int indexOfDate(LocalDate date, boolean after);
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the expenses in this list with the given category, only reading the category column
+  ColumnarExpenses filterByCategory(Category category);
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the expenses in this list dated from startDate to endDate (inclusive), only reading the date column
+  ColumnarExpenses filterByDateRange(LocalDate startDate, LocalDate endDate);
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the categories of the expenses in this list, only reading the category column
+  Set<Category> getCategories();
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the sum of the amounts of the expenses in this list, only reading the amount columns
+  BigDecimal getTotal();
+
+  @Override
+  ColumnarExpenses subList(int fromIndex, int toIndex);
+
+}
@@ -0,0 +1,314 @@
+package model;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * Compact expenses - an immutable list of expenses kept in memory column by column (struct-of-arrays)
+ * Each expense takes 18 bytes plus the UTF-8 bytes of its description, instead of five objects,
+ * filters and totals scan the primitive columns, and an Expense object is only created when one is asked for with get
+ * Amounts are stored in whole cents, so they come back with a scale of 2 (5 comes back as 5.00, an equal expense),
+ * the rare amount with a fraction of a cent, or too large for a long, is kept aside exactly as it was
+ */
+public final class CompactExpenses extends AbstractList<Expense> implements ColumnarExpenses, RandomAccess {
+
+  // the columns, shared by every list that selects rows from them
+  private static final class Columns {
+    final int[] dates; // epoch days
+    final long[] cents; // or Money.NOT_CENTS for amounts kept in the big amount table
+    final short[] categories; // category ids (see Category.getId)
+    final int[] descriptionEnds; // end offset of each description in the arena
+    final byte[] descriptions; // every description's UTF-8 bytes back to back
+    final Map<Integer, BigDecimal> bigAmounts; // by row
+    final boolean dateOrdered;
+
+    // NOTE: a builder's columns that are exactly full are shared instead of trimmed,
+    //       which is safe because the builder grows them (into new arrays) before it adds anything else
+    Columns(Builder builder) {
+      int count = builder.count;
+      this.dates = builder.dates.length == count ? builder.dates : Arrays.copyOf(builder.dates, count);
+      this.cents = builder.cents.length == count ? builder.cents : Arrays.copyOf(builder.cents, count);
+      this.categories = builder.categories.length == count ? builder.categories : Arrays.copyOf(builder.categories, count);
+      this.descriptionEnds = builder.descriptionEnds.length == count
+        ? builder.descriptionEnds
+        : Arrays.copyOf(builder.descriptionEnds, count);
+      this.descriptions = Arrays.copyOf(builder.descriptions, builder.descriptionBytes);
+      this.bigAmounts = Map.copyOf(builder.bigAmounts);
+      this.dateOrdered = builder.dateOrdered;
+    }
+  }
+
+  /**
+   * Builder - adds expenses to the columns one at a time, so a huge list never exists as Expense objects
+   */
+  public static final class Builder {
+
+    private int count = 0;
+    private int[] dates;
+    private long[] cents;
+    private short[] categories;
+    private int[] descriptionEnds;
+    private byte[] descriptions = new byte[256];
+    private int descriptionBytes = 0;
+    private final Map<Integer, BigDecimal> bigAmounts = new HashMap<>();
+    private boolean dateOrdered = true;
+
+    public Builder() {
+      this(16);
+    }
+
+    // EFFECTS: creates a builder with room for the given number of expenses before it has to grow its columns
+    public Builder(int expectedCount) {
+      int capacity = Math.max(expectedCount, 16);
+      dates = new int[capacity];
+      cents = new long[capacity];
+      categories = new short[capacity];
+      descriptionEnds = new int[capacity];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds the expense to the end of the columns
+    public Builder add(Expense expense) {
+      return add(expense.getDate(), expense.getCategory(), expense.getAmount(), expense.getCents(), expense.getDescription());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds an expense with the given values to the end of the columns,
+    //          throws IllegalArgumentException if the columns can't hold it (too many categories or description bytes)
+    public Builder add(LocalDate date, Category category, BigDecimal amount, String description) {
+      return add(date, category, amount, Money.toCents(amount), description);
+    }
+
+    private Builder add(LocalDate date, Category category, BigDecimal amount, long amountCents, String description) {
+      int id = category.getId();
+      if (id > Short.MAX_VALUE) {
+        throw new IllegalArgumentException("Too many categories for compact expenses");
+      }
+      byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+      if (bytes.length > Integer.MAX_VALUE - 8 - descriptionBytes) {
+        throw new IllegalArgumentException("Too many description bytes for compact expenses");
+      }
+
+      if (count == dates.length) grow();
+      int day = Math.toIntExact(date.toEpochDay());
+      if (count > 0 && dates[count - 1] > day) dateOrdered = false;
+      dates[count] = day;
+      cents[count] = amountCents;
+      if (amountCents == Money.NOT_CENTS) bigAmounts.put(count, amount);
+      categories[count] = (short) id;
+
+      if (descriptionBytes + bytes.length > descriptions.length) {
+        descriptions = Arrays.copyOf(descriptions, (int) Math.min(
+          Integer.MAX_VALUE - 8,
+          Math.max((long) descriptions.length * 2, descriptionBytes + bytes.length)
+        ));
+      }
+      System.arraycopy(bytes, 0, descriptions, descriptionBytes, bytes.length);
+      descriptionBytes += bytes.length;
+      descriptionEnds[count] = descriptionBytes;
+
+      count++;
+      return this;
+    }
+
+    // MODIFIES: NOTHING
+    // EFFECTS: returns a list of the expenses added so far, in the order they were added
+    public CompactExpenses build() {
+      return new CompactExpenses(new Columns(this), null, 0, count);
+    }
+
+    private void grow() {
+      int capacity = dates.length * 2;
+      dates = Arrays.copyOf(dates, capacity);
+      cents = Arrays.copyOf(cents, capacity);
+      categories = Arrays.copyOf(categories, capacity);
+      descriptionEnds = Arrays.copyOf(descriptionEnds, capacity);
+    }
+
+  }
+
+  private final Columns columns;
+  private final int[] rows; // rows of the columns this list selects, or null if it selects a contiguous range of them
+  private final int from;
+  private final int to;
+
+  private CompactExpenses(Columns columns, int[] rows, int from, int to) {
+    this.columns = columns;
+    this.rows = rows;
+    this.from = from;
+    this.to = to;
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns a compact copy of the given expenses, in the same order
+  public static CompactExpenses copyOf(Collection<Expense> expenses) {
+    Builder builder = new Builder(expenses.size());
+    expenses.forEach(builder::add);
+    return builder.build();
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: decodes the expense at the given index into a new Expense object, throws if out of bounds
+  @Override
+  public Expense get(int index) {
+    Objects.checkIndex(index, size());
+    int row = row(index);
+    return new Expense(date(row), Category.fromId(columns.categories[row]), amount(row), description(row));
+  }
+
+  @Override
+  public int size() {
+    return to - from;
+  }
+
+  @Override
+  public CompactExpenses subList(int fromIndex, int toIndex) {
+    Objects.checkFromToIndex(fromIndex, toIndex, size());
+    return new CompactExpenses(columns, rows, from + fromIndex, from + toIndex);
+  }
+
+  @Override
+  public boolean isDateOrdered() {
+    return columns.dateOrdered;
+  }
+
+  @Override
+  public int indexOfDate(LocalDate date, boolean after) {
+    long epochDay = date.toEpochDay();
+    int low = 0;
+    int high = size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      int day = columns.dates[row(middle)];
+      if (day < epochDay || (after && day == epochDay)) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  @Override
+  public CompactExpenses filterByCategory(Category category) {
+    int id = category.getId();
+    short[] categories = columns.categories;
+    return select(row -> categories[row] == id);
+  }
+
+  @Override
+  public CompactExpenses filterByDateRange(LocalDate startDate, LocalDate endDate) {
+    if (isDateOrdered()) {
+      return subList(indexOfDate(startDate, false), indexOfDate(endDate, true));
+    }
+    long first = startDate.toEpochDay();
+    long last = endDate.toEpochDay();
+    int[] dates = columns.dates;
+    return select(row -> dates[row] >= first && dates[row] <= last);
+  }
+
+  @Override
+  public Set<Category> getCategories() {
+    BitSet seen = new BitSet();
+    for (int i = 0; i < size(); i++) {
+      seen.set(columns.categories[row(i)]);
+    }
+    return seen.stream().mapToObj(Category::fromId).collect(Collectors.toUnmodifiableSet());
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the sum of the amounts of the expenses in this list (with a scale of at least 2),
+  //          only reading the amount column (see summarize)
+  @Override
+  public BigDecimal getTotal() {
+    return summarize(null, null, null).total();
+  }
+
+  /**
+   * Summary - the number of expenses that matched a query, and the total, smallest and largest of their amounts
+   * (the smallest and largest are null if nothing matched)
+   */
+  public record Summary(int count, BigDecimal total, BigDecimal min, BigDecimal max) {}
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns a summary of the expenses in this list dated from startDate to endDate (inclusive)
+  //          with the given category, where a null date or category matches anything,
+  //          in a single pass over the date, category and amount columns (see ColumnKernels), without filtering first
+  public Summary summarize(LocalDate startDate, LocalDate endDate, Category category) {
+    long firstDay = (startDate == null ? LocalDate.MIN : startDate).toEpochDay();
+    long lastDay = (endDate == null ? LocalDate.MAX : endDate).toEpochDay();
+    int categoryId = category == null ? ColumnKernels.ANY_CATEGORY : category.getId();
+
+    // NOTE: large lists are split across the fork-join pool (see ParallelScan), each part into its own aggregate
+    ColumnKernels.Aggregate aggregate = ParallelScan.scan(from, to, (start, end) -> {
+      ColumnKernels.Aggregate part = new ColumnKernels.Aggregate();
+      if (rows == null) {
+        ColumnKernels.aggregate(columns.dates, columns.cents, columns.categories, start, end, firstDay, lastDay, categoryId, part);
+      } else {
+        ColumnKernels.aggregate(columns.dates, columns.cents, columns.categories, rows, start, end, firstDay, lastDay, categoryId, part);
+      }
+      return part;
+    }, ColumnKernels.Aggregate::add);
+    int count = aggregate.count;
+    BigDecimal min = count > 0 ? Money.fromCents(aggregate.min) : null;
+    BigDecimal max = count > 0 ? Money.fromCents(aggregate.max) : null;
+
+    // NOTE: the kernels skip amounts that aren't in cents, there are usually none, so they're added up here instead
+    if (!columns.bigAmounts.isEmpty()) {
+      for (int i = 0; i < size(); i++) {
+        int row = row(i);
+        if (columns.cents[row] != Money.NOT_CENTS) continue;
+        BigDecimal amount = columns.bigAmounts.get(row);
+        int day = columns.dates[row];
+        if (
+          day < firstDay || day > lastDay
+            || (categoryId != ColumnKernels.ANY_CATEGORY && columns.categories[row] != categoryId)
+        ) {
+          continue;
+        }
+        count++;
+        aggregate.sum.addRest(amount);
+        min = min == null || amount.compareTo(min) < 0 ? amount : min;
+        max = max == null || amount.compareTo(max) > 0 ? amount : max;
+      }
+    }
+    return new Summary(count, aggregate.sum.toBigDecimal(), min, max);
+  }
+
+  // the rows of this list that match, in order, scanned in parallel if this list is large (see ParallelScan)
+  private CompactExpenses select(IntPredicate rowMatches) {
+    int[] selected = ParallelScan.select(size(), this::row, rowMatches);
+    return new CompactExpenses(columns, selected, 0, selected.length);
+  }
+
+  private int row(int index) {
+    return rows == null ? from + index : rows[from + index];
+  }
+
+  private LocalDate date(int row) {
+    return LocalDate.ofEpochDay(columns.dates[row]);
+  }
+
+  private BigDecimal amount(int row) {
+    long cents = columns.cents[row];
+    return cents == Money.NOT_CENTS ? columns.bigAmounts.get(row) : Money.fromCents(cents);
+  }
+
+  private String description(int row) {
+    int start = row == 0 ? 0 : columns.descriptionEnds[row - 1];
+    return new String(columns.descriptions, start, columns.descriptionEnds[row] - start, StandardCharsets.UTF_8);
+  }
+
+}
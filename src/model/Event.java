@@ -1,6 +1,6 @@
 package model;
 
-import java.util.Calendar;
+import java.time.Instant;
 import java.util.Date;
 
 /**
@@ -8,8 +8,10 @@ import java.util.Date;
  */
 public class Event {
   private static final int HASH_CONSTANT = 13;
-  private Date dateLogged;
-  private String description;
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+  private static final long NANOS_PER_MILLI = 1_000_000L;
+  private final long timeLogged; // nanoseconds since the epoch
+  private final String description;
 
   /**
    * Creates an event with the given description
@@ -17,16 +19,43 @@ public class Event {
    * @param description  a description of the event
    */
   public Event(String description) {
-    dateLogged = Calendar.getInstance().getTime();
+    this(now(), description);
+  }
+
+  /**
+   * Creates an event with the given time stamp and description.
+   * @param timeLogged  the time of the event, in nanoseconds since the epoch
+   * @param description  a description of the event
+   */
+  Event(long timeLogged, String description) {
+    this.timeLogged = timeLogged;
     this.description = description;
   }
 
+  /**
+   * Gets the current time in nanoseconds since the epoch
+   * (as precise as the system clock).
+   * @return  the current time
+   */
+  static long now() {
+    Instant now = Instant.now();
+    return now.getEpochSecond() * NANOS_PER_SECOND + now.getNano();
+  }
+
   /**
    * Gets the date of this event (includes time).
    * @return  the date of the event
    */
   public Date getDate() {
-    return dateLogged;
+    return new Date(Math.floorDiv(timeLogged, NANOS_PER_MILLI));
+  }
+
+  /**
+   * Gets the time of this event.
+   * @return  the time of the event, in nanoseconds since the epoch
+   */
+  public long getTime() {
+    return timeLogged;
   }
 
   /**
@@ -48,18 +77,18 @@ public class Event {
     Event otherEvent = (Event) other;
 
     return (
-      this.dateLogged.equals(otherEvent.dateLogged) &&
+      this.timeLogged == otherEvent.timeLogged &&
       this.description.equals(otherEvent.description)
     );
   }
 
   @Override
   public int hashCode() {
-    return (HASH_CONSTANT * dateLogged.hashCode() + description.hashCode());
+    return (HASH_CONSTANT * Long.hashCode(timeLogged) + description.hashCode());
   }
 
   @Override
   public String toString() {
-    return dateLogged.toString() + "\n" + description;
+    return getDate().toString() + "\n" + description;
   }
 }
@@ -0,0 +1,117 @@
+package model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Event file sink - copies the events in an event log to a log file on a background thread
+ * Every so often the thread appends whatever was logged since its last batch in a single write,
+ * so the code doing the logging never waits on the disk
+ * Once the file reaches its maximum size it's rotated: path becomes path.1, path.1 becomes path.2,
+ * and so on, keeping at most the given number of files
+ */
+public final class EventFileSink implements AutoCloseable {
+
+  public static final long DEFAULT_INTERVAL_MILLIS = 250;
+
+  private final EventLog log;
+  private final Path path;
+  private final long maxFileSize;
+  private final int maxFiles;
+  private final long intervalMillis;
+  private final Thread thread;
+
+  private volatile boolean closed = false;
+  private long nextSequence = 0; // only used by the sink's thread (and by close, once it's done)
+  private long fileSize;
+
+  // MODIFIES: the file system
+  // EFFECTS: starts copying the log's events (starting with the ones it holds now) to the file at the given path,
+  //          appending to it if it exists, a batch every intervalMillis milliseconds
+  //          throws IllegalArgumentException if maxFileSize or intervalMillis isn't positive or maxFiles is less than 1
+  public EventFileSink(EventLog log, Path path, long maxFileSize, int maxFiles, long intervalMillis) throws IOException {
+    if (maxFileSize <= 0 || maxFiles < 1 || intervalMillis <= 0) {
+      throw new IllegalArgumentException("Invalid event file sink limits");
+    }
+    this.log = log;
+    this.path = path;
+    this.maxFileSize = maxFileSize;
+    this.maxFiles = maxFiles;
+    this.intervalMillis = intervalMillis;
+    this.fileSize = Files.exists(path) ? Files.size(path) : 0;
+
+    this.thread = new Thread(this::run, "Event file sink");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the path of the file with the given number, 0 being the file currently written to
+  public Path pathFor(int file) {
+    return file == 0 ? path : path.resolveSibling(path.getFileName() + "." + file);
+  }
+
+  // MODIFIES: this, the file system
+  // EFFECTS: stops the background thread, and then writes out every event logged up to now
+  @Override
+  public void close() {
+    if (closed) return;
+    closed = true;
+    // NOTE: not interrupted, that would close the file out from under a write in progress
+    LockSupport.unpark(thread);
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    drain();
+  }
+
+  private void run() {
+    while (true) {
+      LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(intervalMillis));
+      // NOTE: close wakes us up, and then drains one last time itself
+      if (closed) return;
+      drain();
+    }
+  }
+
+  private void drain() {
+    List<Event> events = new ArrayList<>();
+    nextSequence = log.readFrom(nextSequence, events);
+    if (events.isEmpty()) return;
+
+    StringBuilder lines = new StringBuilder();
+    for (Event event : events) {
+      EventLog.appendLine(lines, event);
+    }
+    byte[] batch = lines.toString().getBytes(StandardCharsets.UTF_8);
+    try {
+      if (fileSize > 0 && fileSize + batch.length > maxFileSize) rotate();
+      Files.write(path, batch, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+      fileSize += batch.length;
+    } catch (IOException e) {
+      // NOTE: the sink can't log its own failures without making more of them, so the batch is dropped
+    }
+  }
+
+  private void rotate() throws IOException {
+    Files.deleteIfExists(pathFor(maxFiles - 1));
+    for (int file = maxFiles - 2; file >= 0; file--) {
+      if (Files.exists(pathFor(file))) {
+        Files.move(pathFor(file), pathFor(file + 1), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    fileSize = 0;
+  }
+
+}
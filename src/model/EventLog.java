@@ -1,26 +1,137 @@
 package model;
 
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Represents a log of alarm system events.
  * We use the Singleton Design Pattern to ensure that there is only
  * one EventLog in the system and that the system has global access
  * to the single instance of the EventLog.
+ * The log keeps at most a fixed number of the most recent events,
+ * in a ring buffer of time stamps and messages, so it never grows
+ * no matter how long the system runs. Any number of threads can log
+ * at once: each claims the next slot with an atomic increment, and
+ * readers skip slots that are being written. What happens to older events
+ * is decided by the log's overflow policy, and spill files are written
+ * on a background thread, so logging never waits on the disk.
+ * A message is either a description, or the values making up a description,
+ * which are only turned into text once the log is read.
  */
 public class EventLog implements Iterable<Event> {
+  /** how many events the log keeps unless it's configured otherwise */
+  public static final int DEFAULT_CAPACITY = 1 << 16;
+
+  /**
+   * What the log does with its oldest events once it's full.
+   */
+  public enum OverflowPolicy {
+    /** forget the oldest event to make room for each new one */
+    DROP_OLDEST,
+    /** append the oldest events to a spill file, half the log at a time */
+    SPILL_TO_DISK
+  }
+
+  // value of a slot's published sequence number while its event is being written (or before anything is)
+  private static final long UNPUBLISHED = -1;
+
+  // spill files are written one batch at a time, in order, on a daemon thread
+  private static final ExecutorService SPILLER = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "Event log spill");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  // the events, each in the slot its sequence number maps to, replaced as a whole by configure
+  private static final class Ring {
+    final int mask;
+    final long[] times;
+    final Object[] messages; // descriptions, or the values to render into them
+    final AtomicLongArray published; // sequence number of the event in each slot
+    final OverflowPolicy overflowPolicy;
+    final Path spillFile;
+
+    Ring(int capacity, OverflowPolicy overflowPolicy, Path spillFile) {
+      this.mask = capacity - 1;
+      this.times = new long[capacity];
+      this.messages = new Object[capacity];
+      this.published = new AtomicLongArray(capacity);
+      for (int i = 0; i < capacity; i++) published.setPlain(i, UNPUBLISHED);
+      this.overflowPolicy = overflowPolicy;
+      this.spillFile = spillFile;
+    }
+
+    int capacity() {
+      return mask + 1;
+    }
+
+    void write(long sequence, long time, Object message) {
+      int slot = (int) sequence & mask;
+      // NOTE: a seqlock, readers throw away what they read if the slot's sequence number changed meanwhile
+      published.setOpaque(slot, UNPUBLISHED);
+      VarHandle.storeStoreFence();
+      times[slot] = time;
+      messages[slot] = message;
+      published.setRelease(slot, sequence);
+    }
+
+    // returns true if the event with the given sequence number hasn't been published yet
+    boolean isPending(long sequence) {
+      return published.getAcquire((int) sequence & mask) < sequence;
+    }
+
+    // copies the time stamp and message of the event with the given sequence number to the given index of the arrays,
+    // returns false if it's being written or was overwritten
+    boolean copy(long sequence, long[] toTimes, Object[] toMessages, int index) {
+      int slot = (int) sequence & mask;
+      if (published.getAcquire(slot) != sequence) return false;
+      long time = times[slot];
+      Object message = messages[slot];
+      VarHandle.loadLoadFence();
+      if (published.getOpaque(slot) != sequence) return false;
+      toTimes[index] = time;
+      toMessages[index] = message;
+      return true;
+    }
+
+    // returns the event with the given sequence number, or null if it's being written or was overwritten
+    Event read(long sequence) {
+      int slot = (int) sequence & mask;
+      if (published.getAcquire(slot) != sequence) return null;
+      long time = times[slot];
+      Object message = messages[slot];
+      VarHandle.loadLoadFence();
+      if (published.getOpaque(slot) != sequence) return null;
+      return new Event(time, describe(message));
+    }
+  }
+
   /** the only EventLog in the system (Singleton Design Pattern) */
-  private static EventLog theLog;
-  private Collection<Event> events;
+  private static volatile EventLog theLog;
+  private final AtomicLong nextSequence = new AtomicLong();
+  private volatile long firstSequence = 0; // events before this one were cleared
+  private volatile Ring ring;
 
   /**
    * Prevent external construction.
    * (Singleton Design Pattern).
    */
   private EventLog() {
-    events = new ArrayList<Event>();
+    ring = new Ring(DEFAULT_CAPACITY, OverflowPolicy.DROP_OLDEST, null);
   }
 
   /**
@@ -30,30 +141,219 @@ public class EventLog implements Iterable<Event> {
    * @return  instance of EventLog
    */
   public static EventLog getInstance() {
-    if (theLog == null)
-      theLog = new EventLog();
+    EventLog log = theLog;
+    if (log == null) {
+      synchronized (EventLog.class) {
+        log = theLog;
+        if (log == null)
+          theLog = log = new EventLog();
+      }
+    }
+
+    return log;
+  }
+
+  /**
+   * Changes how many events the log keeps and what it does once it's full,
+   * keeping the most recent events that fit. Meant to be called before the
+   * log gets busy, events logged by other threads meanwhile may be lost.
+   * @param capacity  the most events the log keeps in memory, a power of two, at least 4
+   * @param overflowPolicy  what to do with the oldest events once the log is full
+   * @param spillFile  the file older events are appended to, required by SPILL_TO_DISK, ignored otherwise
+   */
+  public synchronized void configure(int capacity, OverflowPolicy overflowPolicy, Path spillFile) {
+    if (capacity < 4 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Event log capacity must be a power of two, at least 4");
+    }
+    if (overflowPolicy == OverflowPolicy.SPILL_TO_DISK && spillFile == null) {
+      throw new IllegalArgumentException("Spilling events to disk needs a spill file");
+    }
+
+    Ring oldRing = ring;
+    Ring newRing = new Ring(capacity, overflowPolicy, overflowPolicy == OverflowPolicy.SPILL_TO_DISK ? spillFile : null);
+    long end = nextSequence.get();
+    for (long sequence = Math.max(firstSequence, end - capacity); sequence < end; sequence++) {
+      int slot = (int) sequence & oldRing.mask;
+      if (oldRing.published.get(slot) == sequence) {
+        newRing.write(sequence, oldRing.times[slot], oldRing.messages[slot]);
+      }
+    }
+    ring = newRing;
+  }
+
+  /**
+   * Gets the most events the log keeps in memory.
+   * @return  the capacity of the log
+   */
+  public int getCapacity() {
+    return ring.capacity();
+  }
 
-    return theLog;
+  /**
+   * Gets what the log does with its oldest events once it's full.
+   * @return  the overflow policy of the log
+   */
+  public OverflowPolicy getOverflowPolicy() {
+    return ring.overflowPolicy;
   }
 
   /**
    * Adds an event to the event log.
+   * Safe to call from any number of threads at once, without locking.
    * @param e the event to be added
    */
   public void logEvent(Event e) {
-    events.add(e);
+    log(e.getTime(), e.getDescription());
+  }
+
+  /**
+   * Adds an event described by the given values (separated by spaces)
+   * and the current time stamp to the event log, without creating an Event
+   * or rendering the values until the log is read.
+   * @param values  the values describing the event, which shouldn't change afterwards
+   */
+  void log(Object[] values) {
+    log(Event.now(), values);
+  }
+
+  private void log(long time, Object message) {
+    Ring ring = this.ring;
+    long sequence = nextSequence.getAndIncrement();
+    ring.write(sequence, time, message);
+    if (ring.overflowPolicy == OverflowPolicy.SPILL_TO_DISK) {
+      // NOTE: each half of the ring is handed to the spill thread by whoever logs the event a quarter of the ring
+      //       before it's overwritten, so the half is copied while it's still there, and the file is written later
+      int half = ring.capacity() / 2;
+      long end = sequence + half / 2 + 1;
+      if (end % half == 0 && end >= ring.capacity()) {
+        handOff(ring, Math.max(end - ring.capacity(), firstSequence), end - half);
+      }
+    }
+  }
+
+  // copies the events with sequence numbers from start to end (exclusive) and has the spill thread append them
+  // to the spill file, copying only references, so nothing is rendered or written on the thread that's logging
+  private void handOff(Ring ring, long start, long end) {
+    if (start >= end) return;
+    long[] times = new long[(int) (end - start)];
+    Object[] messages = new Object[times.length];
+    for (long sequence = start; sequence < end; sequence++) {
+      // NOTE: an event that's still being written is left null here, and the spill thread waits for it
+      ring.copy(sequence, times, messages, (int) (sequence - start));
+    }
+    SPILLER.execute(() -> spill(ring, start, times, messages));
+  }
+
+  // appends the copied events, starting with the one with the given sequence number, to the spill file
+  private static void spill(Ring ring, long start, long[] times, Object[] messages) {
+    StringBuilder lines = new StringBuilder();
+    for (int i = 0; i < messages.length; i++) {
+      if (messages[i] != null) {
+        appendLine(lines, new Event(times[i], describe(messages[i])));
+        continue;
+      }
+      long sequence = start + i;
+      Event event = ring.read(sequence);
+      while (event == null && ring.isPending(sequence)) {
+        // NOTE: the thread that claimed the slot is between claiming and publishing it, so it's done very soon
+        Thread.yield();
+        event = ring.read(sequence);
+      }
+      // NOTE: null here only if the ring went all the way around before the event could be copied
+      if (event != null) appendLine(lines, event);
+    }
+    try {
+      Files.writeString(
+        ring.spillFile,
+        lines,
+        StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.APPEND
+      );
+    } catch (IOException e) {
+      // NOTE: logging must never fail the code doing the logging, so the events are dropped instead
+    }
+  }
+
+  /**
+   * Waits until every event handed to the spill thread so far is written to its spill file.
+   */
+  public static void awaitSpills() {
+    try {
+      SPILLER.submit(() -> { }).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * Appends the event to the text as a single line: its time stamp, a space,
+   * and its description (the format of spill files and EventFileSink files).
+   * @param text  the text to append to
+   * @param event  the event to append
+   */
+  static void appendLine(StringBuilder text, Event event) {
+    text
+      .append(Instant.ofEpochSecond(0, event.getTime()))
+      .append(' ')
+      .append(event.getDescription())
+      .append(System.lineSeparator());
+  }
+
+  private static String describe(Object message) {
+    if (!(message instanceof Object[] values)) {
+      return (String) message;
+    }
+    StringBuilder description = new StringBuilder();
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) description.append(' ');
+      description.append(values[i]);
+    }
+    return description.toString();
   }
 
   /**
    * Clears the event log and logs the event.
    */
   public void clear() {
-    events.clear();
+    firstSequence = nextSequence.get();
     logEvent(new Event("Event log cleared."));
   }
 
+  /**
+   * Adds the events logged from the given sequence number on to the list, in order,
+   * stopping at the first one that's still being written. Events that were
+   * cleared or overwritten before they could be read are skipped.
+   * @param sequence  the sequence number of the first event to read
+   * @param events  the list to add the events to
+   * @return  the sequence number to continue reading from next time
+   */
+  long readFrom(long sequence, List<Event> events) {
+    Ring ring = this.ring;
+    long end = nextSequence.get();
+    for (sequence = Math.max(sequence, Math.max(firstSequence, end - ring.capacity())); sequence < end; sequence++) {
+      Event event = ring.read(sequence);
+      if (event != null) {
+        events.add(event);
+      } else if (ring.isPending(sequence)) {
+        break;
+      }
+    }
+    return sequence;
+  }
+
   @Override
   public Iterator<Event> iterator() {
-    return events.iterator();
+    // NOTE: iterates over a copy, so logging while iterating (e.g. while dumping the log) is fine
+    Ring ring = this.ring;
+    long end = nextSequence.get();
+    List<Event> events = new ArrayList<>();
+    for (long sequence = Math.max(firstSequence, end - ring.capacity()); sequence < end; sequence++) {
+      Event event = ring.read(sequence);
+      if (event != null) events.add(event);
+    }
+    return Collections.unmodifiableList(events).iterator();
   }
 }
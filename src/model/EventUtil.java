@@ -1,11 +1,24 @@
 package model;
 
-import java.util.Arrays;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.stream.Collectors;
 
 public final class EventUtil {
 
+  // how important an event is, events below the current level aren't logged at all
+  public enum Level {
+    DEBUG,
+    INFO,
+    WARNING
+  }
+
+  private static volatile Level level = Level.INFO;
+  // copies events to a log file as they're logged, or null
+  private static EventFileSink sink = null;
+
   private EventUtil() { throw new AssertionError(); }
 
   public static EventLog get() {
@@ -13,12 +26,78 @@ public final class EventUtil {
     return EventLog.getInstance();
   }
 
+  public static Level getLevel() {
+    return level;
+  }
+
+  public static void setLevel(Level newLevel) {
+    if (newLevel == null) throw new IllegalArgumentException("Level can't be null");
+    level = newLevel;
+  }
+
+  public static boolean isEnabled(Level eventLevel) {
+    return eventLevel.compareTo(level) >= 0;
+  }
+
+  // NOTE: values of immutable types are only turned into text when the log is read (see EventLog),
+  //       anything else is turned into text now, so the event shows it as it was when it was logged
   public static void log(Object... values) {
-    String message = Arrays
-      .stream(values)
-      .map(String::valueOf)
-      .collect(Collectors.joining(" "));
-    get().logEvent(new Event(message));
+    log(Level.INFO, values);
+  }
+
+  public static void debug(Object... values) {
+    log(Level.DEBUG, values);
+  }
+
+  public static void warn(Object... values) {
+    log(Level.WARNING, values);
+  }
+
+  public static void log(Level eventLevel, Object... values) {
+    if (!isEnabled(eventLevel)) return;
+    get().log(freeze(values));
+  }
+
+  // the values, with the ones that could still change replaced by their text (copied only if there are any)
+  private static Object[] freeze(Object[] values) {
+    Object[] frozen = values;
+    for (int i = 0; i < values.length; i++) {
+      if (!isImmutable(values[i])) {
+        if (frozen == values) frozen = values.clone();
+        frozen[i] = String.valueOf(values[i]);
+      }
+    }
+    return frozen;
+  }
+
+  private static boolean isImmutable(Object value) {
+    return value == null
+      || value instanceof String
+      || value instanceof Integer
+      || value instanceof Long
+      || value instanceof Double
+      || value instanceof Boolean
+      || value instanceof BigDecimal
+      || value instanceof Enum<?>
+      || value instanceof LocalDate
+      || value instanceof Path
+      || value instanceof Expense
+      || value instanceof Category
+      || value instanceof ExpenseQuery;
+  }
+
+  // writes every event from now on (and the ones the log holds) to a rolling log file in the background,
+  // and at exit instead of dumping the log to stdout
+  public static synchronized void startSink(Path path, long maxFileSize, int maxFiles) throws IOException {
+    stopSink();
+    sink = new EventFileSink(get(), path, maxFileSize, maxFiles, EventFileSink.DEFAULT_INTERVAL_MILLIS);
+  }
+
+  public static synchronized void stopSink() {
+    if (sink != null) {
+      sink.close();
+      sink = null;
+    }
   }
 
   public static void dump() {
@@ -26,11 +105,19 @@ public final class EventUtil {
     System.out.flush();
   }
 
+  private static synchronized void exit() {
+    if (sink != null) {
+      stopSink();
+    } else {
+      dump();
+    }
+  }
+
   private static final AtomicBoolean shutdownHookRegistered = new AtomicBoolean(false);
 
   private static void registerShutdownHook() {
     if (shutdownHookRegistered.compareAndSet(false, true)) {
-      Runtime.getRuntime().addShutdownHook(new Thread(EventUtil::dump));
+      Runtime.getRuntime().addShutdownHook(new Thread(EventUtil::exit));
     }
   }
 
@@ -4,58 +4,89 @@ import java.math.BigDecimal;
 import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.util.Locale;
+import java.util.Objects;
 
 /**
  * Expense - represents an expense with a date, category, amount, and description
+ * Expenses are immutable values: "changing" one makes a changed copy, which ExpenseTracker.update swaps in,
+ * so the same expense can be shared by any number of trackers, views and threads
  */
 public final class Expense implements Comparable<Expense> {
 
-  private LocalDate date;
-  private Category category;
-  private BigDecimal amount;
-  private String description;
+  private final LocalDate date;
+  private final Category category;
+  private final BigDecimal amount;
+  private final String description;
+  // the amount in cents, worked out once so that totals never have to convert it (see Money)
+  private final long cents;
 
   public Expense(LocalDate date, Category category, BigDecimal amount, String description) {
     this.date = date;
     this.category = category;
     this.amount = amount;
     this.description = description;
+    this.cents = Money.toCents(amount);
   }
 
   public LocalDate getDate() {
     return date;
   }
 
-  public void setDate(LocalDate date) {
-    this.date = date;
-    EventUtil.log("Expense.setDate", date, "for", this);
+  // MODIFIES: NOTHING
+  // EFFECTS: returns a copy of this expense with the given date
+  public Expense withDate(LocalDate date) {
+    return new Expense(date, category, amount, description);
   }
 
   public Category getCategory() {
     return category;
   }
 
-  public void setCategory(Category category) {
-    this.category = category;
-    EventUtil.log("Expense.setCategory", category, "for", this);
+  // MODIFIES: NOTHING
+  // EFFECTS: returns a copy of this expense with the given category
+  public Expense withCategory(Category category) {
+    return new Expense(date, category, amount, description);
   }
 
   public BigDecimal getAmount() {
     return amount;
   }
 
-  public void setAmount(BigDecimal amount) {
-    this.amount = amount;
-    EventUtil.log("Expense.setAmount", amount, "for", this);
+  // MODIFIES: NOTHING
+  // EFFECTS: returns a copy of this expense with the given amount
+  public Expense withAmount(BigDecimal amount) {
+    return new Expense(date, category, amount, description);
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the amount in cents, or Money.NOT_CENTS if it isn't a whole number of cents that fits in a long
+  long getCents() {
+    return cents;
   }
 
   public String getDescription() {
     return description;
   }
 
-  public void setDescription(String description) {
-    this.description = description;
-    EventUtil.log("Expense.setDescription", description, "for", this);
+  // MODIFIES: NOTHING
+  // EFFECTS: returns a copy of this expense with the given description
+  public Expense withDescription(String description) {
+    return new Expense(date, category, amount, description);
+  }
+
+  // NOTE: amounts are compared by value, so $5.0 and $5.00 are the same expense
+  @Override
+  public boolean equals(Object obj) {
+    return obj instanceof Expense that
+        && Objects.equals(this.date, that.date)
+        && Objects.equals(this.category, that.category)
+        && (this.amount == null ? that.amount == null : that.amount != null && this.amount.compareTo(that.amount) == 0)
+        && Objects.equals(this.description, that.description);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(date, category, amount == null ? null : amount.stripTrailingZeros(), description);
   }
 
   @Override
@@ -0,0 +1,256 @@
+package model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Expense query - represents everything a report asks of a view at once: which expenses (categories, a date range,
+ * an amount range and description text), in what order, and which page of them (an offset and a limit)
+ * ExpenseTrackerView.query plans it against whatever indexes the view has and runs it in a single pass,
+ * and a query that matches nothing gives an empty view instead of throwing
+ */
+public final class ExpenseQuery {
+
+  // no limit on the number of expenses
+  public static final int NO_LIMIT = Integer.MAX_VALUE;
+
+  /**
+   * Order - the order of the expenses a query gives, ties keep the order they had in the view
+   * (except DATE_DESCENDING, which is always the exact reverse of DATE_ASCENDING)
+   */
+  public enum Order {
+    DATE_ASCENDING(Comparator.comparing(Expense::getDate)),
+    DATE_DESCENDING(Comparator.comparing(Expense::getDate).reversed()),
+    AMOUNT_ASCENDING(Comparator.comparing(Expense::getAmount)),
+    AMOUNT_DESCENDING(Comparator.comparing(Expense::getAmount).reversed());
+
+    private final Comparator<Expense> comparator;
+
+    Order(Comparator<Expense> comparator) {
+      this.comparator = comparator;
+    }
+
+    Comparator<Expense> comparator() {
+      return comparator;
+    }
+  }
+
+  /**
+   * Builder - collects the parts of a query, anything that's never set matches every expense
+   */
+  public static final class Builder {
+
+    private final Set<Category> categories = new HashSet<>();
+    private LocalDate startDate = null;
+    private LocalDate endDate = null;
+    private BigDecimal minAmount = null;
+    private BigDecimal maxAmount = null;
+    private String description = null;
+    private Order order = Order.DATE_ASCENDING;
+    private int offset = 0;
+    private int limit = NO_LIMIT;
+
+    // MODIFIES: this
+    // EFFECTS: only matches expenses with the given category, or any other category added to this query,
+    //          throws IllegalArgumentException if category is null
+    public Builder category(Category category) {
+      if (category == null) throw new IllegalArgumentException("Category can't be null");
+      categories.add(category);
+      return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: only matches expenses with one of the given categories, or any other category added to this query
+    //          (adding none matches any category), throws IllegalArgumentException if a category is null
+    public Builder categories(Collection<Category> categories) {
+      categories.forEach(this::category);
+      return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: only matches expenses dated from startDate to endDate (inclusive), where a null date is open-ended,
+    //          throws IllegalArgumentException if startDate is after endDate
+    public Builder dateRange(LocalDate startDate, LocalDate endDate) {
+      if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+        throw new IllegalArgumentException("Start date must be before or equal to end date");
+      }
+      this.startDate = startDate;
+      this.endDate = endDate;
+      return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: only matches expenses with amounts from minAmount to maxAmount (inclusive), where a null amount is
+    //          open-ended, throws IllegalArgumentException if minAmount is more than maxAmount
+    public Builder amountRange(BigDecimal minAmount, BigDecimal maxAmount) {
+      if (minAmount != null && maxAmount != null && minAmount.compareTo(maxAmount) > 0) {
+        throw new IllegalArgumentException("Minimum amount must be less than or equal to maximum amount");
+      }
+      this.minAmount = minAmount;
+      this.maxAmount = maxAmount;
+      return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: only matches expenses whose descriptions contain the given text, ignoring case (or any, if it's null)
+    public Builder descriptionContains(String text) {
+      this.description = text == null || text.isEmpty() ? null : text;
+      return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: orders the matching expenses (ascending by date unless this is called),
+    //          throws IllegalArgumentException if order is null
+    public Builder orderBy(Order order) {
+      if (order == null) throw new IllegalArgumentException("Order can't be null");
+      this.order = order;
+      return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: skips the given number of matching expenses (after ordering them),
+    //          throws IllegalArgumentException if offset < 0
+    public Builder offset(int offset) {
+      if (offset < 0) throw new IllegalArgumentException("Offset can't be negative");
+      this.offset = offset;
+      return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: gives at most the given number of matching expenses (after the offset),
+    //          throws IllegalArgumentException if limit < 0
+    public Builder limit(int limit) {
+      if (limit < 0) throw new IllegalArgumentException("Limit can't be negative");
+      this.limit = limit;
+      return this;
+    }
+
+    // MODIFIES: NOTHING
+    // EFFECTS: returns an immutable query with what has been set so far
+    public ExpenseQuery build() {
+      return new ExpenseQuery(this);
+    }
+
+  }
+
+  private final Set<Category> categories; // empty for any category
+  private final LocalDate startDate; // or null
+  private final LocalDate endDate; // or null
+  private final BigDecimal minAmount; // or null
+  private final BigDecimal maxAmount; // or null
+  private final long minCents; // minAmount in cents, or Money.NOT_CENTS
+  private final long maxCents; // maxAmount in cents, or Money.NOT_CENTS
+  private final String description; // or null
+  private final Order order;
+  private final int offset;
+  private final int limit;
+
+  private ExpenseQuery(Builder builder) {
+    this.categories = Set.copyOf(builder.categories);
+    this.startDate = builder.startDate;
+    this.endDate = builder.endDate;
+    this.minAmount = builder.minAmount;
+    this.maxAmount = builder.maxAmount;
+    this.minCents = Money.toCents(builder.minAmount);
+    this.maxCents = Money.toCents(builder.maxAmount);
+    this.description = builder.description;
+    this.order = builder.order;
+    this.offset = builder.offset;
+    this.limit = builder.limit;
+  }
+
+  Set<Category> getCategories() {
+    return categories;
+  }
+
+  LocalDate getStartDate() {
+    return startDate;
+  }
+
+  LocalDate getEndDate() {
+    return endDate;
+  }
+
+  boolean hasDateRange() {
+    return startDate != null || endDate != null;
+  }
+
+  Order getOrder() {
+    return order;
+  }
+
+  int getOffset() {
+    return offset;
+  }
+
+  int getLimit() {
+    return limit;
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns a predicate for the parts of this query that haven't already been applied with an index
+  //          (the date range, unless datesApplied, and the categories, unless categoriesApplied),
+  //          or null if nothing is left to check
+  Predicate<Expense> remainingFilter(boolean datesApplied, boolean categoriesApplied) {
+    boolean checkDates = !datesApplied && hasDateRange();
+    boolean checkCategories = !categoriesApplied && !categories.isEmpty();
+    boolean checkAmounts = minAmount != null || maxAmount != null;
+    boolean checkDescription = description != null;
+    if (!checkDates && !checkCategories && !checkAmounts && !checkDescription) return null;
+
+    // NOTE: the checks are picked once here, so the pass over the expenses only runs the ones this query needs
+    return expense ->
+      (!checkCategories || categories.contains(expense.getCategory()))
+        && (!checkDates || isInDateRange(expense.getDate()))
+        && (!checkAmounts || isInAmountRange(expense))
+        && (!checkDescription || containsIgnoreCase(expense.getDescription(), description));
+  }
+
+  private boolean isInDateRange(LocalDate date) {
+    return date != null
+      && (startDate == null || !date.isBefore(startDate))
+      && (endDate == null || !date.isAfter(endDate));
+  }
+
+  private boolean isInAmountRange(Expense expense) {
+    long cents = expense.getCents();
+    if (cents != Money.NOT_CENTS) {
+      // NOTE: compares longs of cents when it can, instead of BigDecimals (see Money)
+      boolean aboveMin = minAmount == null
+        || (minCents != Money.NOT_CENTS ? cents >= minCents : expense.getAmount().compareTo(minAmount) >= 0);
+      boolean belowMax = maxAmount == null
+        || (maxCents != Money.NOT_CENTS ? cents <= maxCents : expense.getAmount().compareTo(maxAmount) <= 0);
+      return aboveMin && belowMax;
+    }
+    BigDecimal amount = expense.getAmount();
+    return amount != null
+      && (minAmount == null || amount.compareTo(minAmount) >= 0)
+      && (maxAmount == null || amount.compareTo(maxAmount) <= 0);
+  }
+
+  // true if text contains part, ignoring case, without making lowercase copies of either
+  private static boolean containsIgnoreCase(String text, String part) {
+    if (text == null) return false;
+    for (int i = 0; i + part.length() <= text.length(); i++) {
+      if (text.regionMatches(true, i, part, 0, part.length())) return true;
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return "ExpenseQuery{categories=" + categories
+      + ", dates=" + startDate + " to " + endDate
+      + ", amounts=" + minAmount + " to " + maxAmount
+      + ", description=" + description
+      + ", order=" + order
+      + ", offset=" + offset
+      + ", limit=" + limit + "}";
+  }
+
+}
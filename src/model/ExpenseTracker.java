@@ -1,68 +1,433 @@
 package model;
 
+import persistence.BinaryPersistence;
+import persistence.Journal;
 import persistence.Persistence;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Expense tracker - represents a mutable list of unique expenses
+ * Safe to share between threads: changes take turns holding a lock, and then publish an immutable snapshot,
+ * which is all that reading (getExpenses, and filtering and totalling the view) ever touches, so reads never wait
+ * Totals are kept up to date as expenses change (see ExpenseTree), so asking for the total and count
+ * of everything, a category, a day or a month never adds up the expenses again
  */
 public final class ExpenseTracker {
 
-  private final ArrayList<Expense> expenses = new ArrayList<>();
+  /**
+   * Update result - what came of replacing a tracked expense with another one
+   */
+  public enum UpdateResult {
+    /** the expense was replaced */
+    UPDATED,
+    /** nothing happened, the expense to replace isn't tracked (e.g. it was changed or deleted meanwhile) */
+    NOT_PRESENT,
+    /** nothing happened, the new expense would be a duplicate of another tracked expense */
+    DUPLICATE
+  }
+
+  // what readers see: the expense tree and category index as of the last finished change
+  private record Snapshot(ExpenseTree expenses, Map<Category, ExpenseTree> categories) {}
+
+  private volatile Snapshot snapshot = new Snapshot(ExpenseTree.EMPTY, Map.of());
+  // held by whoever is changing the tracker, everything below is only touched while holding it
+  private final ReentrantLock lock = new ReentrantLock();
+
+  // expenses ordered by date, ties are broken by insertion order (just like the old stable sort)
+  // NOTE: the tree is immutable, every change swaps in a new tree, so views can share it without copying
+  private ExpenseTree expenses = ExpenseTree.EMPTY;
+  // a tracked expense and where it lives in the tree
+  private record Entry(Expense expense, ExpenseTree.Key key) {}
+
+  // entry for each tracked expense by value, so we never have to scan for an expense, and duplicates are found in constant time
+  private final HashMap<Expense, Entry> entries = new HashMap<>();
+  // expenses of each category, ordered and keyed exactly like the main tree, so category filters skip everything else
+  private final HashMap<Category, ExpenseTree> categories = new HashMap<>();
+  // true if the category index changed since the last snapshot
+  private boolean categoriesChanged = false;
+
+  private long nextSequence = 0;
+
+  // changes since the file this tracker was last saved to or loaded from, so saving again only appends them
+  private Journal journal = null;
 
   public ExpenseTracker() {
     // empty constructor
   }
 
   // MODIFIES: NOTHING
-  // EFFECTS: creates a **copy** of the expense tracker's expense list and returns a view into that state
+  // EFFECTS: returns a view into a snapshot of the expense tracker's expense list,
+  //          later changes to the expense tracker are not visible through the view
+  //          (this is constant time, the snapshot shares the expense tracker's immutable tree instead of copying it,
+  //          and it never waits for a change in progress, it just returns the snapshot from before that change)
   public ExpenseTrackerView getExpenses() {
-    return new ExpenseTrackerView(expenses);
+    Snapshot current = snapshot;
+    return new ExpenseTrackerView(current.expenses().asList(), current.categories());
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the sum of the amounts of every tracked expense, in constant time
+  //          (each query reads the latest snapshot on its own, use getExpenses for a count and total that match)
+  public BigDecimal getTotal() {
+    return snapshot.expenses().total();
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the number of tracked expenses, in constant time
+  public int getCount() {
+    return snapshot.expenses().size();
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the sum of the amounts of the tracked expenses in the given category, in constant time
+  public BigDecimal getTotal(Category category) {
+    return snapshot.categories().getOrDefault(category, ExpenseTree.EMPTY).total();
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the number of tracked expenses in the given category, in constant time
+  public int getCount(Category category) {
+    return snapshot.categories().getOrDefault(category, ExpenseTree.EMPTY).size();
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the sum of the amounts of the tracked expenses dated on the given day, in logarithmic time
+  public BigDecimal getTotal(LocalDate day) {
+    return snapshot.expenses().slice(day, day).getTotal();
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the number of tracked expenses dated on the given day, in logarithmic time
+  public int getCount(LocalDate day) {
+    return snapshot.expenses().slice(day, day).size();
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the sum of the amounts of the tracked expenses dated in the given month, in logarithmic time
+  public BigDecimal getTotal(YearMonth month) {
+    return snapshot.expenses().slice(month.atDay(1), month.atEndOfMonth()).getTotal();
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the number of tracked expenses dated in the given month, in logarithmic time
+  public int getCount(YearMonth month) {
+    return snapshot.expenses().slice(month.atDay(1), month.atEndOfMonth()).size();
   }
 
   // MODIFIES: the expense tracker's expense list
   // EFFECTS: tries to add an expense to the expense tracker, returns true on success, false on duplicate
+  //          (an expense is a duplicate if an equal expense, by value, is already tracked)
   public boolean addExpense(Expense expense) {
-    if (expenses.contains(expense)) {
-      EventUtil.log("ExpenseTracker.addExpense duplicate expense", expense);
-      return false;
-    } else {
-      EventUtil.log("ExpenseTracker.addExpense", expense);
-      expenses.add(expense);
-      // NOTE: always sort expenses after mutation
-      Collections.sort(expenses);
-      return true;
+    lock.lock();
+    try {
+      if (entries.containsKey(expense)) {
+        EventUtil.warn("ExpenseTracker.addExpense duplicate expense", expense);
+        return false;
+      } else {
+        insert(expense);
+        if (journal != null) journal.recordAdd(expense);
+        publish();
+        EventUtil.log("ExpenseTracker.addExpense", expense);
+        return true;
+      }
+    } finally {
+      lock.unlock();
     }
   }
 
   // MODIFIES: the expense tracker's expense list
-  // EFFECTS: tries to remove an expense from the expense tracker, returns true on success, false on not present
+  // EFFECTS: tries to remove an expense (or an equal expense, by value) from the expense tracker,
+  //          returns true on success, false on not present
   public boolean deleteExpense(Expense expense) {
-    if (expenses.remove(expense)) {
-      EventUtil.log("ExpenseTracker.deleteExpense", expense);
-      return true;
+    lock.lock();
+    try {
+      if (remove(expense)) {
+        publish();
+        EventUtil.log("ExpenseTracker.deleteExpense", expense);
+        return true;
+      } else {
+        EventUtil.warn("ExpenseTracker.deleteExpense not present", expense);
+        return false;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the tracked expense that is equal (by value) to the given expense, or null if there isn't one,
+  //          as of the latest snapshot (so, like getExpenses, it never waits for a change or a save in progress)
+  public Expense findExpense(Expense expense) {
+    if (expense.getCategory() == null || expense.getDate() == null) return null;
+    Snapshot current = snapshot;
+    ExpenseTree categoryExpenses = current.categories().get(expense.getCategory());
+    if (categoryExpenses == null) return null;
+    // NOTE: an equal expense has the same category and date, so only that day of its category's tree is scanned
+    for (Expense tracked : categoryExpenses.slice(expense.getDate(), expense.getDate())) {
+      if (tracked.equals(expense)) return tracked;
+    }
+    return null;
+  }
+
+  // MODIFIES: the expense tracker's expense list
+  // EFFECTS: replaces the tracked expense equal (by value) to oldExpense with newExpense as a single change,
+  //          re-indexing it (and moving it to the end of its new date if the date changed),
+  //          returns UPDATED on success, NOT_PRESENT (changing nothing) if oldExpense isn't tracked,
+  //          or DUPLICATE (changing nothing) if newExpense is a duplicate of another tracked expense
+  public UpdateResult update(Expense oldExpense, Expense newExpense) {
+    lock.lock();
+    try {
+      Entry entry = entries.get(oldExpense);
+      if (entry == null) {
+        EventUtil.warn("ExpenseTracker.update not present", oldExpense);
+        return UpdateResult.NOT_PRESENT;
+      }
+      if (!newExpense.equals(oldExpense) && entries.containsKey(newExpense)) {
+        EventUtil.warn("ExpenseTracker.update duplicate expense", newExpense);
+        return UpdateResult.DUPLICATE;
+      }
+
+      removeEntry(entry);
+      // NOTE: a changed date takes a fresh key, just like deleting and re-adding would
+      ExpenseTree.Key key = newExpense.getDate().equals(entry.key().date())
+        ? entry.key()
+        : new ExpenseTree.Key(newExpense.getDate(), nextSequence++);
+      insert(newExpense, key);
+      if (journal != null) journal.recordUpdate(entry.expense(), newExpense);
+      publish();
+
+      EventUtil.log("ExpenseTracker.update", entry.expense(), "to", newExpense);
+      return UpdateResult.UPDATED;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // MODIFIES: the expense tracker's expense list
+  // EFFECTS: adds every expense in the collection that isn't a duplicate (of a tracked expense or of an earlier one
+  //          in the collection), logging a single event for the whole batch, returns the number of expenses added
+  public int addExpenses(Collection<Expense> newExpenses) {
+    lock.lock();
+    try {
+      List<Expense> added = insertAll(newExpenses);
+      if (journal != null) added.forEach(journal::recordAdd);
+      publish();
+
+      EventUtil.log("ExpenseTracker.addExpenses", added.size(), "of", newExpenses.size(), "expenses");
+      return added.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // MODIFIES: the expense tracker's expense list
+  // EFFECTS: removes every expense in the collection (or an equal expense, by value) from the expense tracker,
+  //          logging a single event for the whole batch, returns the number of expenses removed
+  public int deleteExpenses(Collection<Expense> oldExpenses) {
+    lock.lock();
+    try {
+      int removed = 0;
+      for (Expense expense : oldExpenses) {
+        if (remove(expense)) removed++;
+      }
+      publish();
+
+      EventUtil.log("ExpenseTracker.deleteExpenses", removed, "of", oldExpenses.size(), "expenses");
+      return removed;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // MODIFIES: the expense tracker's expense list
+  // EFFECTS: empties the expense tracker and then adds every non-duplicate expense in the collection,
+  //          logging a single event for the whole batch, returns the number of expenses now tracked
+  public int replaceExpenses(Collection<Expense> newExpenses) {
+    lock.lock();
+    try {
+      int removed = expenses.size();
+      expenses = ExpenseTree.EMPTY;
+      entries.clear();
+      categories.clear();
+      categoriesChanged = true;
+      // NOTE: journaling every expense would cost as much as saving the whole file, so just save the whole file next time
+      if (journal != null) journal.requireCheckpoint();
+
+      int added = insertAll(newExpenses).size();
+      publish();
+
+      EventUtil.log("ExpenseTracker.replaceExpenses", removed, "expenses with", added, "expenses");
+      return added;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // swaps in a snapshot of the current state for readers
+  private void publish() {
+    Map<Category, ExpenseTree> categoryIndex = snapshot.categories();
+    if (categoriesChanged) {
+      categoryIndex = Collections.unmodifiableMap(new HashMap<>(categories));
+      categoriesChanged = false;
+    }
+    snapshot = new Snapshot(expenses, categoryIndex);
+  }
+
+  private void insert(Expense expense) {
+    // NOTE: the key is taken once on insertion, so the tree stays ordered without re-sorting
+    insert(expense, new ExpenseTree.Key(expense.getDate(), nextSequence++));
+  }
+
+  private void insert(Expense expense, ExpenseTree.Key key) {
+    expenses = expenses.insert(key, expense);
+    entries.put(expense, new Entry(expense, key));
+    indexCategory(expense, key);
+  }
+
+  // inserts every non-duplicate expense, sorting the batch once and merging it into the tree in one go,
+  // returns the expenses that were inserted
+  private List<Expense> insertAll(Collection<Expense> newExpenses) {
+    List<Expense> accepted = new ArrayList<>();
+    for (Expense expense : newExpenses) {
+      if (entries.putIfAbsent(expense, new Entry(expense, null)) == null) {
+        accepted.add(expense);
+      }
+    }
+
+    // NOTE: the sort is stable, so same-date expenses keep their order in the batch
+    accepted.sort(null);
+
+    List<ExpenseTree.Key> keys = new ArrayList<>(accepted.size());
+    for (Expense expense : accepted) {
+      ExpenseTree.Key key = new ExpenseTree.Key(expense.getDate(), nextSequence++);
+      entries.put(expense, new Entry(expense, key));
+      keys.add(key);
+    }
+
+    expenses = expenses.insertAll(keys, accepted);
+
+    Map<Category, List<Expense>> acceptedByCategory = new HashMap<>();
+    Map<Category, List<ExpenseTree.Key>> keysByCategory = new HashMap<>();
+    for (int i = 0; i < accepted.size(); i++) {
+      Category category = accepted.get(i).getCategory();
+      acceptedByCategory.computeIfAbsent(category, c -> new ArrayList<>()).add(accepted.get(i));
+      keysByCategory.computeIfAbsent(category, c -> new ArrayList<>()).add(keys.get(i));
+    }
+    acceptedByCategory.forEach((category, categoryExpenses) -> categories.put(
+      category,
+      categories.getOrDefault(category, ExpenseTree.EMPTY).insertAll(keysByCategory.get(category), categoryExpenses)
+    ));
+    categoriesChanged = true;
+
+    return accepted;
+  }
+
+  private boolean remove(Expense expense) {
+    Entry entry = entries.get(expense);
+    if (entry == null) return false;
+    removeEntry(entry);
+    if (journal != null) journal.recordDelete(entry.expense());
+    return true;
+  }
+
+  private void removeEntry(Entry entry) {
+    entries.remove(entry.expense());
+    expenses = expenses.remove(entry.key());
+    unindexCategory(entry.expense(), entry.key());
+  }
+
+  private void indexCategory(Expense expense, ExpenseTree.Key key) {
+    categories.put(expense.getCategory(), categories.getOrDefault(expense.getCategory(), ExpenseTree.EMPTY).insert(key, expense));
+    categoriesChanged = true;
+  }
+
+  private void unindexCategory(Expense expense, ExpenseTree.Key key) {
+    ExpenseTree tree = categories.get(expense.getCategory()).remove(key);
+    if (tree.isEmpty()) {
+      categories.remove(expense.getCategory());
     } else {
-      EventUtil.log("ExpenseTracker.deleteExpense not present", expense);
-      return false;
+      categories.put(expense.getCategory(), tree);
     }
+    categoriesChanged = true;
   }
 
   // MODIFIES: NOTHING
-  // EFFECTS: saves the expense tracker's expense list to a file with the provided path
+  // EFFECTS: opens a binary expense file (see BinaryPersistence) as a read-only view, without loading it:
+  //          the file is memory-mapped, filters and totals read it directly,
+  //          and expenses are only decoded when they are looked at, so even huge files open instantly
+  //          throws if the file isn't a binary expense file
+  public static ExpenseTrackerView openReadOnly(Path path) throws IOException {
+    return new ExpenseTrackerView(BinaryPersistence.mapExpenseFile(path));
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: reads a binary expense file (see BinaryPersistence) into memory as a read-only view,
+  //          stored column by column (see CompactExpenses) instead of as an Expense object per expense,
+  //          so it takes a fraction of the memory of loading it into a tracker, and the file can change afterwards
+  //          throws if the file isn't a binary expense file
+  public static ExpenseTrackerView openCompact(Path path) throws IOException {
+    return new ExpenseTrackerView(BinaryPersistence.readCompactExpenseFile(path));
+  }
+
+  // MODIFIES: the file system
+  // EFFECTS: saves the expense tracker's expense list to a file with the provided path,
+  //          in the binary format if the path ends in BinaryPersistence.FILE_EXTENSION, otherwise as JSON
+  //          saving again to the same file only appends the changes made since to the file's journal,
+  //          and once the journal gets too large the whole file is rewritten in the background (see Journal)
+  //          (changes wait for the save, so the file and its journal always match, but reads don't)
   public void save(Path path) throws IOException {
-    Persistence.saveExpenseTrackerToFile(this, path);
+    lock.lock();
+    try {
+      if (journal != null && journal.isFor(path) && journal.canCommit()) {
+        journal.commit();
+        // NOTE: the expense list is immutable, so the compaction can write it out while this tracker keeps changing
+        if (journal.shouldCompact()) journal.compact(getExpenses().toList());
+        return;
+      }
+      // NOTE: a compaction still writing this file would otherwise race with us
+      Journal.awaitCompactions();
+      if (BinaryPersistence.isBinaryFile(path)) {
+        BinaryPersistence.saveExpenseTrackerToFile(this, path);
+      } else {
+        Persistence.saveExpenseTrackerToFile(this, path);
+      }
+      journal = Journal.create(path);
+    } finally {
+      lock.unlock();
+    }
   }
 
   // MODIFIES: the expense tracker's expense list
   // EFFECTS: reads the file at the provided path as an expense list,
-  //          empties this expense tracker,
-  //          and calls addExpense for each expense in the file
+  //          and replaces the expenses in this expense tracker with the expenses in the file,
+  //          then replays the changes in the file's journal (if it has one)
+  //          (the file's format is picked by its extension, just like in save)
   public void load(Path path) throws IOException {
-    Persistence.restoreExpenseTrackerFromFile(this, path);
+    lock.lock();
+    try {
+      journal = null;
+      Journal.awaitCompactions();
+      if (BinaryPersistence.isBinaryFile(path)) {
+        BinaryPersistence.restoreExpenseTrackerFromFile(this, path);
+      } else {
+        Persistence.restoreExpenseTrackerFromFile(this, path);
+      }
+      journal = Journal.replay(path, this);
+    } finally {
+      lock.unlock();
+    }
   }
 
 }
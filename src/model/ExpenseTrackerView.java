@@ -1,23 +1,56 @@
 package model;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Expense tracker view - represents a selection of expenses that were pulled from an expense tracker
  */
 public final class ExpenseTrackerView {
 
-  private final List<Expense> expenses;
+  private final List<Expense> expenses; // always immutable
+  private final boolean dateOrdered; // lets date range filters binary search instead of scanning
+  // per-category trees of the tracker snapshot this view is a contiguous range of, or null if it isn't one
+  private final Map<Category, ExpenseTree> categoryIndex;
 
   // MODIFIES: NOTHING
   // EFFECTS: **copies** the given list of expenses and creates a shallow-immutable view over them
+  //          (expense tracker snapshots and columnar lists are already immutable, so they are shared instead of copied)
   public ExpenseTrackerView(List<Expense> expenses) {
     Objects.requireNonNull(expenses);
-    this.expenses = List.copyOf(expenses);
+    if (expenses instanceof ExpenseTree.Slice) {
+      this.expenses = expenses;
+      this.dateOrdered = true;
+    } else if (expenses instanceof ColumnarExpenses columnar) {
+      this.expenses = columnar;
+      this.dateOrdered = columnar.isDateOrdered();
+    } else {
+      this.expenses = List.copyOf(expenses);
+      this.dateOrdered = isDateOrdered(this.expenses);
+    }
+    this.categoryIndex = null;
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: creates a view over an expense tracker snapshot and that snapshot's category index, without copying
+  ExpenseTrackerView(ExpenseTree.Slice expenses, Map<Category, ExpenseTree> categoryIndex) {
+    this(expenses, true, categoryIndex);
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: creates a view directly over an immutable list of expenses, without copying it
+  private ExpenseTrackerView(List<Expense> expenses, boolean dateOrdered, Map<Category, ExpenseTree> categoryIndex) {
+    this.expenses = expenses;
+    this.dateOrdered = dateOrdered;
+    this.categoryIndex = categoryIndex;
   }
 
   // MODIFIES: NOTHING
@@ -27,14 +60,24 @@ public final class ExpenseTrackerView {
   //   throws if no expenses match the given category
   public ExpenseTrackerView filterByCategory(Category category) throws FilterException {
     if (category == null) {
-      EventUtil.log("ExpenseTrackerView.filterByCategory null category?");
+      EventUtil.warn("ExpenseTrackerView.filterByCategory null category?");
       throw new InvalidArgumentFilterException("Category is null");
     }
 
-    List<Expense> filteredExpenses = expenses
-      .stream()
-      .filter(expense -> expense.getCategory() == category)
-      .toList();
+    List<Expense> filteredExpenses;
+    if (categoryIndex != null) {
+      // NOTE: this view is a contiguous range of the tracker, so the same range of the category's tree is the answer
+      ExpenseTree categoryExpenses = categoryIndex.getOrDefault(category, ExpenseTree.EMPTY);
+      ExpenseTree.Slice slice = (ExpenseTree.Slice) expenses;
+      filteredExpenses = slice.isEmpty() ? List.of() : categoryExpenses.slice(slice.firstKey(), slice.lastKey());
+    } else if (expenses instanceof ColumnarExpenses columnar) {
+      // NOTE: only reads the category column, expenses are decoded later if they're actually looked at
+      filteredExpenses = columnar.filterByCategory(category);
+    } else {
+      filteredExpenses = stream()
+        .filter(expense -> category.equals(expense.getCategory()))
+        .toList();
+    }
 
     if (filteredExpenses.isEmpty()) {
       EventUtil.log("ExpenseTrackerView.filterByCategory no expenses for", category);
@@ -42,7 +85,7 @@ public final class ExpenseTrackerView {
     }
 
     EventUtil.log("ExpenseTrackerView.filterByCategory", filteredExpenses.size(), "expenses for", category);
-    return new ExpenseTrackerView(filteredExpenses);
+    return new ExpenseTrackerView(filteredExpenses, dateOrdered, null);
   }
 
   // MODIFIES: NOTHING
@@ -52,29 +95,36 @@ public final class ExpenseTrackerView {
   //   throws if no expenses match the given date range, or if startDate is after endDate (invalid)
   public ExpenseTrackerView filterByDateRange(LocalDate startDate, LocalDate endDate) throws FilterException {
     if (startDate == null) {
-      EventUtil.log("ExpenseTrackerView.filterByDateRange null startDate?");
+      EventUtil.warn("ExpenseTrackerView.filterByDateRange null startDate?");
       throw new InvalidArgumentFilterException("Start date is null");
     }
     if (endDate == null) {
-      EventUtil.log("ExpenseTrackerView.filterByDateRange null endDate?");
+      EventUtil.warn("ExpenseTrackerView.filterByDateRange null endDate?");
       throw new InvalidArgumentFilterException("End date is null");
     }
     if (!startDate.isBefore(endDate) && !startDate.isEqual(endDate)) {
-      EventUtil.log("ExpenseTrackerView.filterByDateRange", startDate, "is after", endDate);
+      EventUtil.warn("ExpenseTrackerView.filterByDateRange", startDate, "is after", endDate);
       throw new InvalidDateRangeFilterException("Start date must be before or equal to end date");
     }
 
-    List<Expense> filteredExpenses = expenses
-      .stream()
-      .filter(expense ->
-        (
-          expense.getDate().isAfter(startDate) &&
-          expense.getDate().isBefore(endDate)
+    List<Expense> filteredExpenses;
+    if (dateOrdered) {
+      // NOTE: sorted by date, so the range is one contiguous run that we can find by binary search
+      filteredExpenses = expenses.subList(indexOfDate(startDate, false), indexOfDate(endDate, true));
+    } else if (expenses instanceof ColumnarExpenses columnar) {
+      filteredExpenses = columnar.filterByDateRange(startDate, endDate);
+    } else {
+      filteredExpenses = stream()
+        .filter(expense ->
+          (
+            expense.getDate().isAfter(startDate) &&
+            expense.getDate().isBefore(endDate)
+          )
+            || expense.getDate().isEqual(startDate)
+            || expense.getDate().isEqual(endDate)
         )
-          || expense.getDate().isEqual(startDate)
-          || expense.getDate().isEqual(endDate)
-      )
-      .toList();
+        .toList();
+    }
 
     if (filteredExpenses.isEmpty()) {
       EventUtil.log("ExpenseTrackerView.filterByDateRange no expenses in date range", startDate, "to", endDate);
@@ -82,17 +132,17 @@ public final class ExpenseTrackerView {
     }
 
     EventUtil.log("ExpenseTrackerView.filterByDateRange", filteredExpenses.size(), "expenses in date range", startDate, "to", endDate);
-    return new ExpenseTrackerView(filteredExpenses);
+    return new ExpenseTrackerView(filteredExpenses, dateOrdered, categoryIndex);
   }
 
   // MODIFIES: NOTHING
   // REQUIRES: that limit is greater than zero
   // EFFECTS:
-  //   returns a shallow-immutable view of the expenses, limited to the given amount (only the first N expenses, in ascending order by date)
+  //   returns a shallow-immutable view of the expenses, limited to the given amount (only the first N expenses, in this view's order)
   //   throws if no expenses match the given limit, or if limit <= 0 (invalid)
   public ExpenseTrackerView limitToAmount(int limit) throws FilterException {
     if (limit <= 0) {
-      EventUtil.log("ExpenseTrackerView.limitToAmount invalid limit?", limit);
+      EventUtil.warn("ExpenseTrackerView.limitToAmount invalid limit?", limit);
       throw new InvalidArgumentFilterException("Limit must be greater than zero");
     }
 
@@ -104,13 +154,95 @@ public final class ExpenseTrackerView {
     }
 
     EventUtil.log("ExpenseTrackerView.limitToAmount", filteredExpenses.size(), "expenses");
-    return new ExpenseTrackerView(filteredExpenses);
+    return new ExpenseTrackerView(filteredExpenses, dateOrdered, categoryIndex);
   }
 
   // MODIFIES: NOTHING
-  // EFFECTS: returns a new **copied** list of the expenses in this (possibly filtered) view in ascending order by date
+  // REQUIRES: that query is not null
+  // EFFECTS:
+  //   returns a shallow-immutable view of the expenses that match the query, in the query's order,
+  //   from its offset and at most its limit, or an empty view if none match (instead of throwing)
+  //   the date range and a single category are narrowed with whatever index this view has
+  //   (binary search of a date ordered view, the tracker's category trees, the columns of a columnar list),
+  //   and everything else is checked in a single pass over what's left, without intermediate views
+  public ExpenseTrackerView query(ExpenseQuery query) {
+    Objects.requireNonNull(query);
+
+    List<Expense> matches = expenses;
+    // still a contiguous range of the tracker snapshot, so the category index still applies to it
+    boolean contiguous = categoryIndex != null;
+    boolean datesApplied = false;
+    boolean categoriesApplied = false;
+
+    if (query.hasDateRange() && (dateOrdered || expenses instanceof ColumnarExpenses)) {
+      LocalDate startDate = query.getStartDate();
+      LocalDate endDate = query.getEndDate();
+      if (dateOrdered) {
+        int from = startDate == null ? 0 : indexOfDate(startDate, false);
+        int to = endDate == null ? expenses.size() : indexOfDate(endDate, true);
+        matches = expenses.subList(from, Math.max(from, to));
+      } else {
+        matches = ((ColumnarExpenses) expenses).filterByDateRange(
+          startDate == null ? LocalDate.MIN : startDate,
+          endDate == null ? LocalDate.MAX : endDate
+        );
+      }
+      datesApplied = true;
+    }
+
+    if (query.getCategories().size() == 1) {
+      Category category = query.getCategories().iterator().next();
+      if (contiguous) {
+        ExpenseTree categoryExpenses = categoryIndex.getOrDefault(category, ExpenseTree.EMPTY);
+        ExpenseTree.Slice slice = (ExpenseTree.Slice) matches;
+        matches = slice.isEmpty() ? List.of() : categoryExpenses.slice(slice.firstKey(), slice.lastKey());
+        categoriesApplied = true;
+      } else if (matches instanceof ColumnarExpenses columnar) {
+        matches = columnar.filterByCategory(category);
+        categoriesApplied = true;
+      }
+      contiguous = false;
+    }
+
+    Predicate<Expense> remainingFilter = query.remainingFilter(datesApplied, categoriesApplied);
+    if (remainingFilter != null) {
+      matches = stream(matches).filter(remainingFilter).toList();
+      contiguous = false;
+    }
+
+    ExpenseQuery.Order order = query.getOrder();
+    if (order != ExpenseQuery.Order.DATE_ASCENDING) {
+      contiguous = false;
+    }
+    boolean byDate = order == ExpenseQuery.Order.DATE_ASCENDING || order == ExpenseQuery.Order.DATE_DESCENDING;
+    if (!byDate || !dateOrdered) {
+      // NOTE: the sort is stable, so expenses that tie keep the order they had in this view
+      Comparator<Expense> comparator = byDate ? ExpenseQuery.Order.DATE_ASCENDING.comparator() : order.comparator();
+      matches = stream(matches).sorted(comparator).toList();
+    }
+    if (order == ExpenseQuery.Order.DATE_DESCENDING) {
+      // NOTE: ascending by date by now, so a reversed view is the answer, without sorting or copying again
+      matches = matches.reversed();
+    }
+
+    int from = Math.min(query.getOffset(), matches.size());
+    int to = from + Math.min(query.getLimit(), matches.size() - from);
+    matches = matches.subList(from, to);
+
+    EventUtil.log("ExpenseTrackerView.query", matches.size(), "expenses for", query);
+    return new ExpenseTrackerView(
+      matches,
+      order == ExpenseQuery.Order.DATE_ASCENDING,
+      contiguous ? categoryIndex : null
+    );
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns an immutable list of the expenses in this (possibly filtered) view, in this view's order
+  //          (ascending by date, unless the view is the result of a query with another order),
+  //          the view is immutable, so the list is shared instead of copied
   public List<Expense> toList() {
-    return List.copyOf(expenses);
+    return expenses;
   }
 
   // MODIFIES: NOTHING
@@ -134,13 +266,86 @@ public final class ExpenseTrackerView {
     return null;
   }
 
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the sum of the amounts of the expenses in this (possibly filtered) view, with a scale of at least 2
+  //          (logarithmic for views of an expense tracker, whose tree keeps running totals, and split across
+  //          the fork-join pool for other large views, see ParallelScan)
+  public BigDecimal getTotal() {
+    if (expenses instanceof ExpenseTree.Slice slice) {
+      return slice.getTotal();
+    }
+    if (expenses instanceof ColumnarExpenses columnar) {
+      return columnar.getTotal();
+    }
+    return ParallelScan.scan(0, expenses.size(), (from, to) -> {
+      Money.Sum sum = new Money.Sum();
+      for (Expense expense : expenses.subList(from, to)) {
+        sum.add(expense.getCents(), expense.getAmount());
+      }
+      return sum;
+    }, Money.Sum::add).toBigDecimal();
+  }
+
   // MODIFIES: NOTHING
   // EFFECTS: returns a new **copied** immutable set of the categories in the expenses in this (possibly filtered) view
   public Set<Category> getCategories() {
-    return expenses
-      .stream()
+    if (categoryIndex != null && !expenses.isEmpty()) {
+      ExpenseTree.Slice slice = (ExpenseTree.Slice) expenses;
+      return categoryIndex
+        .entrySet()
+        .stream()
+        .filter(entry -> !entry.getValue().slice(slice.firstKey(), slice.lastKey()).isEmpty())
+        .map(Map.Entry::getKey)
+        .collect(Collectors.toUnmodifiableSet());
+    }
+    if (expenses instanceof ColumnarExpenses columnar) {
+      return columnar.getCategories();
+    }
+    return stream()
       .map(Expense::getCategory)
       .collect(Collectors.toUnmodifiableSet());
   }
 
+  // index of the first expense dated on or after the given date (or strictly after it, if after is true)
+  // REQUIRES: that this view is date ordered
+  private int indexOfDate(LocalDate date, boolean after) {
+    if (expenses instanceof ExpenseTree.Slice slice) {
+      return slice.indexOfDate(date, after);
+    }
+    if (expenses instanceof ColumnarExpenses columnar) {
+      return columnar.indexOfDate(date, after);
+    }
+    int low = 0;
+    int high = expenses.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      int result = expenses.get(middle).getDate().compareTo(date);
+      if (result < 0 || (after && result == 0)) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  // the expenses as a stream, a parallel one (on the common fork-join pool) if there are enough of them to split
+  // (see ParallelScan), which still collects into a list in the same order
+  private Stream<Expense> stream() {
+    return stream(expenses);
+  }
+
+  private static Stream<Expense> stream(List<Expense> expenses) {
+    return ParallelScan.isLarge(expenses.size()) ? expenses.parallelStream() : expenses.stream();
+  }
+
+  private static boolean isDateOrdered(List<Expense> expenses) {
+    for (int i = 1; i < expenses.size(); i++) {
+      LocalDate previous = expenses.get(i - 1).getDate();
+      LocalDate current = expenses.get(i).getDate();
+      if (previous == null || current == null || previous.isAfter(current)) return false;
+    }
+    return true;
+  }
+
 }
@@ -0,0 +1,439 @@
+package model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Expense tree - an immutable, date-ordered tree of expenses (a persistent treap)
+ * Every "mutation" returns a new tree that shares all untouched nodes with the old one,
+ * so holding on to an old tree is a free snapshot of the tracker's state
+ * Each node also keeps the total of the amounts below it, in cents (see Money), kept up to date by the same path copying,
+ * so the total of any range is found in logarithmic time instead of by adding up the whole range
+ */
+final class ExpenseTree {
+
+  // position of an expense in the tree: by date first, then by insertion order
+  record Key(LocalDate date, long sequence) implements Comparable<Key> {
+    @Override
+    public int compareTo(Key that) {
+      int result = this.date.compareTo(that.date);
+      return result != 0 ? result : Long.compare(this.sequence, that.sequence);
+    }
+  }
+
+  private static final class Node {
+    final Key key;
+    final Expense expense;
+    final Node left;
+    final Node right;
+    final int size;
+    // total of this node's amount and the amounts of its children in cents,
+    // or Money.NOT_CENTS if any of them isn't in cents or the total overflows, and then the total is kept in total
+    final long totalCents;
+    final BigDecimal total;
+
+    Node(Key key, Expense expense, Node left, Node right) {
+      this.key = key;
+      this.expense = expense;
+      this.left = left;
+      this.right = right;
+      this.size = sizeOf(left) + 1 + sizeOf(right);
+      this.totalCents = Money.add(Money.add(centsOf(left), expense.getCents()), centsOf(right));
+      this.total = totalCents != Money.NOT_CENTS ? null : totalOf(left).add(expense.getAmount()).add(totalOf(right));
+    }
+
+    void addTo(Money.Sum sum) {
+      if (totalCents != Money.NOT_CENTS) {
+        sum.addCents(totalCents);
+      } else {
+        sum.addRest(total);
+      }
+    }
+
+    Node withChildren(Node left, Node right) {
+      return (left == this.left && right == this.right) ? this : new Node(key, expense, left, right);
+    }
+  }
+
+  static final ExpenseTree EMPTY = new ExpenseTree(null);
+
+  private final Node root;
+
+  private ExpenseTree(Node root) {
+    this.root = root;
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the number of expenses in this tree
+  int size() {
+    return sizeOf(root);
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the sum of the amounts of the expenses in this tree (with a scale of at least 2), in constant time
+  BigDecimal total() {
+    Money.Sum sum = new Money.Sum();
+    if (root != null) root.addTo(sum);
+    return sum.toBigDecimal();
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the expense at the given index (in ascending order by key), throws if out of bounds
+  Expense get(int index) {
+    Objects.checkIndex(index, size());
+    return get(root, index);
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns a new tree with the expense added under the given key (which must not be in this tree)
+  ExpenseTree insert(Key key, Expense expense) {
+    return new ExpenseTree(insert(root, new Node(key, expense, null, null)));
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns a new tree without the expense under the given key, or this tree if the key isn't present
+  ExpenseTree remove(Key key) {
+    Node newRoot = remove(root, key);
+    return newRoot == root ? this : new ExpenseTree(newRoot);
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns a new tree with all the given entries added, the keys must be sorted, unique and not in this tree
+  //          runs in linear time when this tree is empty
+  ExpenseTree insertAll(List<Key> sortedKeys, List<Expense> expenses) {
+    return new ExpenseTree(union(root, build(sortedKeys, expenses)));
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns true if this tree has no expenses
+  boolean isEmpty() {
+    return root == null;
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns an immutable list over every expense in this tree, in ascending order, without copying
+  Slice asList() {
+    return new Slice(root, 0, size());
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns an immutable list over the expenses in this tree with keys from first to last (inclusive),
+  //          in logarithmic time
+  Slice slice(Key first, Key last) {
+    int from = countBefore(root, first, false);
+    int to = Math.max(from, countBefore(root, last, true));
+    return new Slice(root, from, to);
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns an immutable list over the expenses in this tree dated from first to last (inclusive),
+  //          in logarithmic time
+  Slice slice(LocalDate first, LocalDate last) {
+    int from = countBefore(root, first, false);
+    int to = Math.max(from, countBefore(root, last, true));
+    return new Slice(root, from, to);
+  }
+
+  /**
+   * An immutable list over a contiguous range of an expense tree
+   * Indexing is logarithmic, iteration is linear, and sub-lists are free
+   */
+  static final class Slice extends AbstractList<Expense> {
+
+    private final Node root;
+    private final int from;
+    private final int to;
+
+    private Slice(Node root, int from, int to) {
+      this.root = root;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public Expense get(int index) {
+      Objects.checkIndex(index, size());
+      return ExpenseTree.get(root, from + index);
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+
+    @Override
+    public Slice subList(int fromIndex, int toIndex) {
+      Objects.checkFromToIndex(fromIndex, toIndex, size());
+      return new Slice(root, from + fromIndex, from + toIndex);
+    }
+
+    @Override
+    public Iterator<Expense> iterator() {
+      return new SliceIterator(root, from, to);
+    }
+
+    // MODIFIES: NOTHING
+    // EFFECTS: returns the sum of the amounts of the expenses in this slice (with a scale of at least 2),
+    //          in logarithmic time
+    BigDecimal getTotal() {
+      Money.Sum sum = new Money.Sum();
+      addTotal(root, from, to, sum);
+      return sum.toBigDecimal();
+    }
+
+    // MODIFIES: NOTHING
+    // EFFECTS: returns the key of the first expense in this slice, REQUIRES: that this slice is not empty
+    Key firstKey() {
+      return keyAt(root, from);
+    }
+
+    // MODIFIES: NOTHING
+    // EFFECTS: returns the key of the last expense in this slice, REQUIRES: that this slice is not empty
+    Key lastKey() {
+      return keyAt(root, to - 1);
+    }
+
+    // MODIFIES: NOTHING
+    // EFFECTS: returns the index of the first expense in this slice dated on or after the given date
+    //          (or strictly after it, if after is true), or size() if there isn't one, in logarithmic time
+    int indexOfDate(LocalDate date, boolean after) {
+      int rank = countBefore(root, date, after);
+      return Math.min(Math.max(rank, from), to) - from;
+    }
+
+  }
+
+  // in-order walk over [from, to) that only descends into the nodes it needs
+  private static final class SliceIterator implements Iterator<Expense> {
+
+    private final ArrayDeque<Node> stack = new ArrayDeque<>();
+    private int remaining;
+
+    SliceIterator(Node root, int from, int to) {
+      remaining = to - from;
+      Node node = root;
+      int index = from;
+      while (node != null) {
+        int leftSize = sizeOf(node.left);
+        if (index < leftSize) {
+          stack.push(node);
+          node = node.left;
+        } else if (index > leftSize) {
+          index -= leftSize + 1;
+          node = node.right;
+        } else {
+          stack.push(node);
+          break;
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return remaining > 0;
+    }
+
+    @Override
+    public Expense next() {
+      if (remaining <= 0) throw new NoSuchElementException();
+      remaining--;
+      Node node = stack.pop();
+      for (Node next = node.right; next != null; next = next.left) stack.push(next);
+      return node.expense;
+    }
+
+  }
+
+  private static Expense get(Node node, int index) {
+    return nodeAt(node, index).expense;
+  }
+
+  private static Key keyAt(Node node, int index) {
+    return nodeAt(node, index).key;
+  }
+
+  private static Node nodeAt(Node node, int index) {
+    while (true) {
+      int leftSize = sizeOf(node.left);
+      if (index < leftSize) {
+        node = node.left;
+      } else if (index > leftSize) {
+        index -= leftSize + 1;
+        node = node.right;
+      } else {
+        return node;
+      }
+    }
+  }
+
+  // number of nodes with keys less than the given key (or less than or equal to it, if inclusive is true)
+  private static int countBefore(Node node, Key key, boolean inclusive) {
+    int count = 0;
+    while (node != null) {
+      int result = node.key.compareTo(key);
+      if (result < 0 || (inclusive && result == 0)) {
+        count += sizeOf(node.left) + 1;
+        node = node.right;
+      } else {
+        node = node.left;
+      }
+    }
+    return count;
+  }
+
+  // number of nodes dated before the given date (or on or before it, if inclusive is true)
+  private static int countBefore(Node node, LocalDate date, boolean inclusive) {
+    int count = 0;
+    while (node != null) {
+      int result = node.key.date().compareTo(date);
+      if (result < 0 || (inclusive && result == 0)) {
+        count += sizeOf(node.left) + 1;
+        node = node.right;
+      } else {
+        node = node.left;
+      }
+    }
+    return count;
+  }
+
+  private static int sizeOf(Node node) {
+    return node == null ? 0 : node.size;
+  }
+
+  private static long centsOf(Node node) {
+    return node == null ? 0 : node.totalCents;
+  }
+
+  private static BigDecimal totalOf(Node node) {
+    if (node == null) return BigDecimal.ZERO;
+    return node.totalCents != Money.NOT_CENTS ? Money.fromCents(node.totalCents) : node.total;
+  }
+
+  // adds the amounts of the nodes from index from to index to (exclusive) of the given subtree to the sum,
+  // using the totals of the subtrees that are entirely in range
+  private static void addTotal(Node node, int from, int to, Money.Sum sum) {
+    if (node == null || from >= to) return;
+    if (from == 0 && to == node.size) {
+      node.addTo(sum);
+      return;
+    }
+    int leftSize = sizeOf(node.left);
+    addTotal(node.left, from, Math.min(to, leftSize), sum);
+    if (from <= leftSize && leftSize < to) sum.add(node.expense.getCents(), node.expense.getAmount());
+    addTotal(node.right, Math.max(from - leftSize - 1, 0), to - leftSize - 1, sum);
+  }
+
+  private static long priority(Node node) {
+    return priority(node.key);
+  }
+
+  // heap priority of a key, a scrambled sequence number keeps the treap balanced without a random source
+  private static long priority(Key key) {
+    long x = key.sequence() + 0x9E3779B97F4A7C15L;
+    x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+    x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+    return x ^ (x >>> 31);
+  }
+
+  private static Node insert(Node node, Node single) {
+    if (node == null) return single;
+    if (priority(single) > priority(node)) {
+      Node[] parts = split(node, single.key);
+      return single.withChildren(parts[0], parts[1]);
+    }
+    if (single.key.compareTo(node.key) < 0) {
+      return node.withChildren(insert(node.left, single), node.right);
+    } else {
+      return node.withChildren(node.left, insert(node.right, single));
+    }
+  }
+
+  private static Node remove(Node node, Key key) {
+    if (node == null) return null;
+    int result = key.compareTo(node.key);
+    if (result < 0) return node.withChildren(remove(node.left, key), node.right);
+    if (result > 0) return node.withChildren(node.left, remove(node.right, key));
+    return merge(node.left, node.right);
+  }
+
+  // splits into nodes with keys less than the given key, and nodes with keys greater or equal
+  private static Node[] split(Node node, Key key) {
+    if (node == null) return new Node[] { null, null };
+    if (node.key.compareTo(key) < 0) {
+      Node[] parts = split(node.right, key);
+      return new Node[] { node.withChildren(node.left, parts[0]), parts[1] };
+    } else {
+      Node[] parts = split(node.left, key);
+      return new Node[] { parts[0], node.withChildren(parts[1], node.right) };
+    }
+  }
+
+  // joins two trees where every key in the left tree is less than every key in the right tree
+  private static Node merge(Node left, Node right) {
+    if (left == null) return right;
+    if (right == null) return left;
+    if (priority(left) > priority(right)) {
+      return left.withChildren(left.left, merge(left.right, right));
+    } else {
+      return right.withChildren(merge(left, right.left), right.right);
+    }
+  }
+
+  private static Node union(Node a, Node b) {
+    if (a == null) return b;
+    if (b == null) return a;
+    if (priority(a) < priority(b)) {
+      Node swap = a;
+      a = b;
+      b = swap;
+    }
+    Node[] parts = split(b, a.key);
+    return a.withChildren(union(a.left, parts[0]), union(a.right, parts[1]));
+  }
+
+  // builds a treap from sorted entries in linear time (a cartesian tree on the priorities)
+  private static Node build(List<Key> sortedKeys, List<Expense> expenses) {
+    int count = sortedKeys.size();
+    if (count == 0) return null;
+
+    Key[] keys = sortedKeys.toArray(new Key[0]);
+    Expense[] values = expenses.toArray(new Expense[0]);
+    long[] priorities = new long[count];
+    int[] lefts = new int[count];
+    int[] rights = new int[count];
+    int[] spine = new int[count];
+    int spineSize = 0;
+
+    for (int i = 0; i < count; i++) {
+      priorities[i] = priority(keys[i]);
+      lefts[i] = -1;
+      rights[i] = -1;
+      int lastPopped = -1;
+      while (spineSize > 0 && priorities[spine[spineSize - 1]] < priorities[i]) {
+        lastPopped = spine[--spineSize];
+      }
+      lefts[i] = lastPopped;
+      if (spineSize > 0) rights[spine[spineSize - 1]] = i;
+      spine[spineSize++] = i;
+    }
+
+    return link(spine[0], keys, values, lefts, rights);
+  }
+
+  private static Node link(int index, Key[] keys, Expense[] values, int[] lefts, int[] rights) {
+    if (index < 0) return null;
+    return new Node(
+      keys[index],
+      values[index],
+      link(lefts[index], keys, values, lefts, rights),
+      link(rights[index], keys, values, lefts, rights)
+    );
+  }
+
+}
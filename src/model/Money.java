@@ -0,0 +1,137 @@
+package model;
+
+import java.math.BigDecimal;
+
+/**
+ * Money - amounts of money as a whole number of cents in a long, so adding them up doesn't allocate anything
+ * Amounts only become BigDecimals at the edges: parsing and showing them, and the rare amount that isn't
+ * a whole number of cents or doesn't fit in a long, which Sum adds up exactly on the side
+ */
+public final class Money {
+
+  // digits after the decimal point of an amount in cents
+  public static final int SCALE = 2;
+  // what toCents returns for an amount that isn't a whole number of cents, or doesn't fit in a long
+  public static final long NOT_CENTS = Long.MIN_VALUE;
+
+  private static final long[] POWERS_OF_TEN = {
+    1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+    10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+    1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+  };
+
+  private Money() { throw new AssertionError(); }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the amount in cents, or NOT_CENTS if it's null, has a fraction of a cent, or doesn't fit in a long
+  public static long toCents(BigDecimal amount) {
+    if (amount == null) return NOT_CENTS;
+    try {
+      return amount.movePointRight(SCALE).longValueExact();
+    } catch (ArithmeticException e) {
+      return NOT_CENTS;
+    }
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the amount unscaled * 10^-scale in cents, or NOT_CENTS if it has a fraction of a cent
+  //          or doesn't fit in a long, without creating a BigDecimal
+  public static long toCents(long unscaled, int scale) {
+    if (scale == SCALE) return unscaled;
+    if (scale > SCALE) {
+      if (scale - SCALE >= POWERS_OF_TEN.length) return unscaled == 0 ? 0 : NOT_CENTS;
+      long power = POWERS_OF_TEN[scale - SCALE];
+      return unscaled % power == 0 ? unscaled / power : NOT_CENTS;
+    }
+    if (unscaled == 0) return 0;
+    if ((long) SCALE - scale >= POWERS_OF_TEN.length) return NOT_CENTS;
+    long power = POWERS_OF_TEN[SCALE - scale];
+    long high = Math.multiplyHigh(unscaled, power);
+    long cents = unscaled * power;
+    // NOTE: it fits only if the high half of the product is just the sign extension of the low half
+    return high == (cents >> 63) && cents != NOT_CENTS ? cents : NOT_CENTS;
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the amount in cents as a BigDecimal with a scale of 2
+  public static BigDecimal fromCents(long cents) {
+    return BigDecimal.valueOf(cents, SCALE);
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns a + b, or NOT_CENTS if either is NOT_CENTS or the sum doesn't fit in a long
+  public static long add(long a, long b) {
+    if (a == NOT_CENTS || b == NOT_CENTS) return NOT_CENTS;
+    long sum = a + b;
+    // overflow only if both operands have the same sign and the result has the other sign
+    return ((a ^ sum) & (b ^ sum)) < 0 ? NOT_CENTS : sum;
+  }
+
+  /**
+   * Sum - a running total of amounts, kept in a long number of cents for as long as it fits,
+   * anything that doesn't fit is added up exactly as a BigDecimal on the side
+   */
+  public static final class Sum {
+
+    private long cents = 0;
+    private BigDecimal rest = null; // amounts that aren't in cents, and cents that overflowed
+
+    // MODIFIES: this
+    // EFFECTS: adds an amount in cents (see toCents) to the total, does nothing for NOT_CENTS
+    public void addCents(long amount) {
+      if (amount == NOT_CENTS) return;
+      long sum = Money.add(cents, amount);
+      if (sum == NOT_CENTS) {
+        addRest(fromCents(cents));
+        sum = amount;
+      }
+      cents = sum;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds the amounts in cents from index from to index to (exclusive) of the array to the total,
+    //          skipping NOT_CENTS, with the same kernels that total CompactExpenses (see ColumnKernels)
+    public void addAllCents(long[] amounts, int from, int to) {
+      ColumnKernels.sum(amounts, from, to, this);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds an amount to the total, in cents if it is a whole number of cents
+    public void add(BigDecimal amount) {
+      add(toCents(amount), amount);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds an amount whose cents were already worked out with toCents to the total
+    public void add(long amountCents, BigDecimal amount) {
+      if (amountCents != NOT_CENTS) {
+        addCents(amountCents);
+      } else {
+        addRest(amount);
+      }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds an amount that's known not to be in cents (see toCents) to the total
+    public void addRest(BigDecimal amount) {
+      rest = rest == null ? amount : rest.add(amount);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds another running total to this one, and returns this
+    public Sum add(Sum other) {
+      addCents(other.cents);
+      if (other.rest != null) addRest(other.rest);
+      return this;
+    }
+
+    // MODIFIES: NOTHING
+    // EFFECTS: returns the total, with a scale of at least 2
+    public BigDecimal toBigDecimal() {
+      BigDecimal total = fromCents(cents);
+      return rest == null ? total : total.add(rest);
+    }
+
+  }
+
+}
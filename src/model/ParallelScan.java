@@ -0,0 +1,100 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Parallel scan - splits a scan over a large range of indexes across the common fork-join pool
+ * Ranges are halved until they're no longer than THRESHOLD, each part is scanned sequentially,
+ * and the results are combined left to right, so they come out in the same order as a sequential scan would give
+ * Ranges no longer than THRESHOLD are scanned on the calling thread, where forking would cost more than it saves
+ */
+public final class ParallelScan {
+
+  // the most indexes scanned sequentially, longer ranges are split
+  public static final int THRESHOLD = 1 << 16;
+
+  private ParallelScan() { throw new AssertionError(); }
+
+  /**
+   * Range scan - scans the indexes from index from to index to (exclusive) and returns what it found
+   */
+  @FunctionalInterface
+  public interface RangeScan<T> {
+    T scan(int from, int to);
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns true if a range of the given size is long enough to be split
+  public static boolean isLarge(int size) {
+    return size > THRESHOLD;
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: scans the indexes from index from to index to (exclusive) in parts of at most THRESHOLD indexes,
+  //          in parallel if there's more than one part, and returns the parts' results combined left to right
+  //          (combine gets the result of the earlier part first)
+  public static <T> T scan(int from, int to, RangeScan<T> scan, BinaryOperator<T> combine) {
+    if (!isLarge(to - from)) return scan.scan(from, to);
+    return ForkJoinPool.commonPool().invoke(new ScanTask<>(from, to, scan, combine));
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns row(i) for each index i from 0 to size (exclusive) for which rowMatches.test(row(i)) is true,
+  //          in ascending order of i
+  public static int[] select(int size, IntUnaryOperator row, IntPredicate rowMatches) {
+    return scan(0, size, (from, to) -> selectRange(from, to, row, rowMatches), ParallelScan::concat);
+  }
+
+  private static int[] selectRange(int from, int to, IntUnaryOperator row, IntPredicate rowMatches) {
+    int[] selected = new int[Math.min(to - from, 16)];
+    int count = 0;
+    for (int i = from; i < to; i++) {
+      int r = row.applyAsInt(i);
+      if (rowMatches.test(r)) {
+        if (count == selected.length) selected = Arrays.copyOf(selected, Math.min(to - from, count * 2));
+        selected[count++] = r;
+      }
+    }
+    return Arrays.copyOf(selected, count);
+  }
+
+  private static int[] concat(int[] first, int[] second) {
+    if (second.length == 0) return first;
+    if (first.length == 0) return second;
+    int[] both = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, both, first.length, second.length);
+    return both;
+  }
+
+  @SuppressWarnings("serial") // tasks are never serialized
+  private static final class ScanTask<T> extends RecursiveTask<T> {
+    private final int from;
+    private final int to;
+    private final RangeScan<T> scan;
+    private final BinaryOperator<T> combine;
+
+    ScanTask(int from, int to, RangeScan<T> scan, BinaryOperator<T> combine) {
+      this.from = from;
+      this.to = to;
+      this.scan = scan;
+      this.combine = combine;
+    }
+
+    @Override
+    protected T compute() {
+      if (!isLarge(to - from)) return scan.scan(from, to);
+      int middle = (from + to) >>> 1;
+      ScanTask<T> second = new ScanTask<>(middle, to, scan, combine);
+      second.fork();
+      // NOTE: the first half is scanned on this thread while another worker can steal the second
+      T first = new ScanTask<>(from, middle, scan, combine).compute();
+      return combine.apply(first, second.join());
+    }
+  }
+
+}
@@ -0,0 +1,77 @@
+package persistence;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Atomic file utilities - replaces files by writing a temporary file next to them and renaming it over them,
+ * so readers (and a crash at any point) only ever see the whole old file or the whole new file
+ */
+final class AtomicFiles {
+
+  static final String TEMPORARY_SUFFIX = ".tmp";
+
+  // writes a whole file at the given path
+  @FunctionalInterface
+  interface FileWriter {
+    void write(Path path) throws IOException;
+  }
+
+  private AtomicFiles() { throw new AssertionError(); }
+
+  // MODIFIES: the file system
+  // EFFECTS: replaces the file at the given path with whatever the writer writes, atomically
+  static void write(Path path, FileWriter writer) throws IOException {
+    Path temporary = writeTemporary(path, writer);
+    try {
+      moveIntoPlace(temporary, path);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  // MODIFIES: the file system
+  // EFFECTS: has the writer write a temporary file next to the given path and syncs it to the disk,
+  //          returns the temporary file's path, ready for moveIntoPlace (nothing is left behind if the writer throws)
+  static Path writeTemporary(Path path, FileWriter writer) throws IOException {
+    Path temporary = path.resolveSibling(path.getFileName() + TEMPORARY_SUFFIX);
+    try {
+      writer.write(temporary);
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+        channel.force(true);
+      }
+      return temporary;
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(temporary);
+      throw e;
+    }
+  }
+
+  // MODIFIES: the file system
+  // EFFECTS: renames the temporary file over the file at the given path, atomically where the file system allows it,
+  //          and syncs the directory so the rename itself survives a crash
+  static void moveIntoPlace(Path temporary, Path path) throws IOException {
+    try {
+      Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+    syncDirectory(path.toAbsolutePath().getParent());
+  }
+
+  // syncs a directory's entries to the disk, where the platform can (directories can't be opened on Windows)
+  private static void syncDirectory(Path directory) {
+    if (directory == null) return;
+    try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException e) {
+      // NOTE: the file is already in place, only the extra guarantee against a crash is missing here
+    }
+  }
+
+}
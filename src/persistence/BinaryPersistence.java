@@ -0,0 +1,464 @@
+package persistence;
+
+import model.Category;
+import model.CompactExpenses;
+import model.EventUtil;
+import model.Expense;
+import model.ExpenseTracker;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Binary persistence utilities - saves and restores expense trackers in a compact columnar format,
+ * much smaller and faster to load than JSON, used for files ending in {@link #FILE_EXTENSION}
+ * <p>
+ * Layout (all numbers little-endian):
+ * <pre>
+ *   header        int magic "EXPT", int version, int expense count, int category count,
+ *                 int big amount count, int flags, long description byte count
+ *   categories    per category: int length, UTF-8 name
+ *   big amounts   per amount that doesn't fit the columns: int scale, int length, two's complement unscaled value
+ *   padding       zeros up to a multiple of 8 bytes
+ *   columns       long[count] unscaled amounts (or big amount index), int[count] epoch days,
+ *                 int[count] category index, int[count] end offset of each description, byte[count] amount scales,
+ *                 followed by every description's UTF-8 bytes back to back
+ * </pre>
+ */
+public final class BinaryPersistence {
+
+  public static final String FILE_EXTENSION = ".expenses";
+
+  static final int MAGIC = 'E' | 'X' << 8 | 'P' << 16 | 'T' << 24;
+  static final int VERSION = 1;
+
+  // header flag set when the expenses are in ascending order by date, which they are whenever a tracker saved them
+  static final int DATE_ORDERED = 1;
+
+  // scale that marks an amount stored in the big amount table instead of the columns
+  static final byte BIG_AMOUNT_SCALE = Byte.MIN_VALUE;
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private BinaryPersistence() { throw new AssertionError(); }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns true if the file at the given path should use the binary format, going by its extension
+  public static boolean isBinaryFile(Path path) {
+    Path fileName = path.getFileName();
+    return fileName != null && fileName.toString().toLowerCase(Locale.ROOT).endsWith(FILE_EXTENSION);
+  }
+
+  // MODIFIES: the file system
+  // EFFECTS: saves an expense tracker to a file at the specified path in the binary format, one column at a time,
+  //          the file is replaced atomically, so a crash mid-save leaves the old file intact
+  public static void saveExpenseTrackerToFile(ExpenseTracker tracker, Path path) throws IOException {
+    try {
+      AtomicFiles.write(path, temporary -> writeExpensesFile(tracker.getExpenses().toList(), temporary));
+    } finally {
+      EventUtil.log("BinaryPersistence.saveExpenseTrackerToFile", path);
+    }
+  }
+
+  // MODIFIES: the file system
+  // EFFECTS: writes the expenses to a binary file at the specified path (in place, not atomically)
+  //          REQUIRES: that the expenses are in ascending order by date
+  static void writeExpensesFile(List<Expense> expenses, Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(
+      path,
+      StandardOpenOption.WRITE,
+      StandardOpenOption.CREATE,
+      StandardOpenOption.TRUNCATE_EXISTING
+    )) {
+      writeExpenses(new ChannelWriter(channel), expenses);
+    }
+  }
+
+  // MODIFIES: tracker
+  // EFFECTS: restores an expense tracker from a binary file at the specified path:
+  //          1. reads every column of the file side by side, decoding one expense at a time into an Expense object
+  //          2. replaces all expenses in the tracker with the decoded expenses
+  //          throws if the file isn't a binary expense file, or was written by a newer version
+  public static void restoreExpenseTrackerFromFile(ExpenseTracker tracker, Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      List<Expense> newExpenseList = readExpenses(channel);
+
+      EventUtil.log("restoreExpenseTracker", newExpenseList.size(), "expenses");
+
+      tracker.replaceExpenses(newExpenseList);
+    } finally {
+      EventUtil.log("BinaryPersistence.restoreExpenseTrackerFromFile", path);
+    }
+  }
+
+  private static void writeExpenses(ChannelWriter out, List<Expense> expenses) throws IOException {
+    // first pass, collect the dictionaries and sizes the header needs
+    Map<Category, Integer> categoryIndexes = new HashMap<>();
+    List<Category> categories = new ArrayList<>();
+    List<BigDecimal> bigAmounts = new ArrayList<>();
+    // NOTE: each description is encoded once, here, and its bytes reused for the end offsets and the arena
+    byte[][] descriptions = new byte[expenses.size()][];
+    long descriptionBytes = 0;
+    int row = 0;
+    for (Expense expense : expenses) {
+      if (categoryIndexes.putIfAbsent(expense.getCategory(), categories.size()) == null) {
+        categories.add(expense.getCategory());
+      }
+      if (!fitsColumns(expense.getAmount())) {
+        bigAmounts.add(expense.getAmount());
+      }
+      long epochDay = expense.getDate().toEpochDay();
+      if (epochDay != (int) epochDay) {
+        throw new IOException("Date " + expense.getDate() + " is out of range for the binary format");
+      }
+      descriptions[row] = encode(expense.getDescription());
+      descriptionBytes += descriptions[row].length;
+      row++;
+    }
+    if (descriptionBytes > Integer.MAX_VALUE) {
+      throw new IOException("Descriptions are too large for the binary format (" + descriptionBytes + " bytes)");
+    }
+
+    out.putInt(MAGIC);
+    out.putInt(VERSION);
+    out.putInt(expenses.size());
+    out.putInt(categories.size());
+    out.putInt(bigAmounts.size());
+    out.putInt(DATE_ORDERED);
+    out.putLong(descriptionBytes);
+
+    for (Category category : categories) {
+      out.putBytes(encode(category.getName()));
+    }
+    for (BigDecimal amount : bigAmounts) {
+      out.putInt(amount.scale());
+      out.putBytes(amount.unscaledValue().toByteArray());
+    }
+    out.padTo(Long.BYTES);
+
+    int bigAmountIndex = 0;
+    for (Expense expense : expenses) {
+      BigDecimal amount = expense.getAmount();
+      out.putLong(fitsColumns(amount) ? amount.unscaledValue().longValue() : bigAmountIndex++);
+    }
+    for (Expense expense : expenses) {
+      out.putInt((int) expense.getDate().toEpochDay());
+    }
+    for (Expense expense : expenses) {
+      out.putInt(categoryIndexes.get(expense.getCategory()));
+    }
+    int descriptionEnd = 0;
+    for (byte[] description : descriptions) {
+      descriptionEnd += description.length;
+      out.putInt(descriptionEnd);
+    }
+    for (Expense expense : expenses) {
+      BigDecimal amount = expense.getAmount();
+      out.putByte(fitsColumns(amount) ? (byte) amount.scale() : BIG_AMOUNT_SCALE);
+    }
+    for (byte[] description : descriptions) {
+      out.putRaw(description);
+    }
+    out.flush();
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: maps the binary file at the specified path into memory and returns a read-only list over its expenses,
+  //          only the header is read up front, expenses are decoded straight from the mapped file when asked for
+  //          throws if the file isn't a binary expense file, or was written by a newer version
+  public static MappedExpenses mapExpenseFile(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      // NOTE: a mapping stays valid after its channel is closed
+      return new MappedExpenses(channel, readHeader(channel));
+    } finally {
+      EventUtil.log("BinaryPersistence.mapExpenseFile", path);
+    }
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: reads the binary file at the specified path into a compact in-memory list (see CompactExpenses),
+  //          straight from the file's columns into the list's, without creating an Expense object for each expense
+  //          throws if the file isn't a binary expense file, or was written by a newer version
+  public static CompactExpenses readCompactExpenseFile(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      Header header = readHeader(channel);
+      CompactExpenses.Builder builder = new CompactExpenses.Builder(header.count());
+      readExpenses(channel, header, builder::add);
+      return builder.build();
+    } finally {
+      EventUtil.log("BinaryPersistence.readCompactExpenseFile", path);
+    }
+  }
+
+  // everything before the columns, plus where each column starts
+  record Header(int count, int flags, Category[] categories, BigDecimal[] bigAmounts, long descriptionBytes, long amountsStart) {
+    long datesStart() {
+      return amountsStart + (long) count * Long.BYTES;
+    }
+
+    long categoriesStart() {
+      return datesStart() + (long) count * Integer.BYTES;
+    }
+
+    long descriptionEndsStart() {
+      return categoriesStart() + (long) count * Integer.BYTES;
+    }
+
+    long scalesStart() {
+      return descriptionEndsStart() + (long) count * Integer.BYTES;
+    }
+
+    long descriptionsStart() {
+      return scalesStart() + count;
+    }
+
+    boolean isDateOrdered() {
+      return (flags & DATE_ORDERED) != 0;
+    }
+  }
+
+  static Header readHeader(FileChannel channel) throws IOException {
+    ColumnReader header = new ColumnReader(channel, 0);
+    if (header.getInt() != MAGIC) {
+      throw new IOException("Not a binary expense file");
+    }
+    int version = header.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported binary expense file version " + version);
+    }
+    int count = checkCount(header.getInt());
+    Category[] categories = new Category[checkCount(header.getInt())];
+    BigDecimal[] bigAmounts = new BigDecimal[checkCount(header.getInt())];
+    int flags = header.getInt();
+    long descriptionBytes = header.getLong();
+
+    for (int i = 0; i < categories.length; i++) {
+      categories[i] = Category.fromName(decode(header.getBytes()));
+    }
+    for (int i = 0; i < bigAmounts.length; i++) {
+      int scale = header.getInt();
+      bigAmounts[i] = new BigDecimal(new BigInteger(header.getBytes()), scale);
+    }
+
+    Header result = new Header(count, flags, categories, bigAmounts, descriptionBytes, align(header.position(), Long.BYTES));
+    if (descriptionBytes < 0 || result.descriptionsStart() + descriptionBytes != channel.size()) {
+      throw new IOException("Binary expense file is truncated or corrupt");
+    }
+    return result;
+  }
+
+  // receives the values of each expense as it's read
+  private interface ExpenseReceiver {
+    void add(LocalDate date, Category category, BigDecimal amount, String description);
+  }
+
+  private static List<Expense> readExpenses(FileChannel channel) throws IOException {
+    Header header = readHeader(channel);
+    List<Expense> expenses = new ArrayList<>(header.count());
+    readExpenses(channel, header, (date, category, amount, description) ->
+      expenses.add(new Expense(date, category, amount, description))
+    );
+    return expenses;
+  }
+
+  // reads every column of the file side by side, passing the values of one expense at a time to the receiver
+  private static void readExpenses(FileChannel channel, Header header, ExpenseReceiver receiver) throws IOException {
+    int count = header.count();
+    Category[] categories = header.categories();
+    BigDecimal[] bigAmounts = header.bigAmounts();
+    long descriptionBytes = header.descriptionBytes();
+
+    ColumnReader amounts = new ColumnReader(channel, header.amountsStart());
+    ColumnReader dates = new ColumnReader(channel, header.datesStart());
+    ColumnReader categoryIndexes = new ColumnReader(channel, header.categoriesStart());
+    ColumnReader descriptionEnds = new ColumnReader(channel, header.descriptionEndsStart());
+    ColumnReader scales = new ColumnReader(channel, header.scalesStart());
+    ColumnReader descriptions = new ColumnReader(channel, header.descriptionsStart());
+
+    int descriptionStart = 0;
+    for (int i = 0; i < count; i++) {
+      long unscaled = amounts.getLong();
+      byte scale = scales.getByte();
+      BigDecimal amount = scale == BIG_AMOUNT_SCALE
+        ? bigAmounts[checkIndex(unscaled, bigAmounts.length)]
+        : BigDecimal.valueOf(unscaled, scale);
+
+      int descriptionEnd = descriptionEnds.getInt();
+      if (descriptionEnd < descriptionStart || descriptionEnd > descriptionBytes) {
+        throw new IOException("Binary expense file is truncated or corrupt");
+      }
+      String description = decode(descriptions.getRaw(descriptionEnd - descriptionStart));
+      descriptionStart = descriptionEnd;
+
+      receiver.add(
+        LocalDate.ofEpochDay(dates.getInt()),
+        categories[checkIndex(categoryIndexes.getInt(), categories.length)],
+        amount,
+        description
+      );
+    }
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns true if the amount can be stored as an unscaled long and a byte scale
+  static boolean fitsColumns(BigDecimal amount) {
+    return amount.scale() > BIG_AMOUNT_SCALE
+      && amount.scale() <= Byte.MAX_VALUE
+      && amount.unscaledValue().bitLength() < Long.SIZE;
+  }
+
+  static long align(long position, int alignment) {
+    return (position + alignment - 1) / alignment * alignment;
+  }
+
+  private static int checkCount(int count) throws IOException {
+    if (count < 0) throw new IOException("Binary expense file is truncated or corrupt");
+    return count;
+  }
+
+  static int checkIndex(long index, int length) throws IOException {
+    if (index < 0 || index >= length) throw new IOException("Binary expense file is truncated or corrupt");
+    return (int) index;
+  }
+
+  private static byte[] encode(String string) {
+    return string.getBytes(StandardCharsets.UTF_8);
+  }
+
+  static String decode(byte[] bytes) {
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  // buffered little-endian writes to a file channel
+  private static final class ChannelWriter {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long position = 0;
+
+    ChannelWriter(FileChannel channel) {
+      this.channel = channel;
+    }
+
+    void putByte(byte value) throws IOException {
+      reserve(Byte.BYTES).put(value);
+    }
+
+    void putInt(int value) throws IOException {
+      reserve(Integer.BYTES).putInt(value);
+    }
+
+    void putLong(long value) throws IOException {
+      reserve(Long.BYTES).putLong(value);
+    }
+
+    // length-prefixed bytes
+    void putBytes(byte[] bytes) throws IOException {
+      putInt(bytes.length);
+      putRaw(bytes);
+    }
+
+    void putRaw(byte[] bytes) throws IOException {
+      for (int offset = 0; offset < bytes.length; ) {
+        int length = Math.min(bytes.length - offset, reserve(1).remaining());
+        buffer.put(bytes, offset, length);
+        position += length - 1;
+        offset += length;
+      }
+    }
+
+    void padTo(int alignment) throws IOException {
+      while (position % alignment != 0) putByte((byte) 0);
+    }
+
+    void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) channel.write(buffer);
+      buffer.clear();
+    }
+
+    // makes room for a write of the given size, and counts it towards the position
+    private ByteBuffer reserve(int size) throws IOException {
+      if (buffer.remaining() < size) flush();
+      position += size;
+      return buffer;
+    }
+
+  }
+
+  // buffered little-endian reads from a file channel, starting at a fixed position
+  // NOTE: several readers share one channel, so every read is positional
+  private static final class ColumnReader {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN).limit(0);
+    private long next;
+
+    ColumnReader(FileChannel channel, long position) {
+      this.channel = channel;
+      this.next = position;
+    }
+
+    // position of the next byte this reader will return
+    long position() {
+      return next - buffer.remaining();
+    }
+
+    byte getByte() throws IOException {
+      return require(Byte.BYTES).get();
+    }
+
+    int getInt() throws IOException {
+      return require(Integer.BYTES).getInt();
+    }
+
+    long getLong() throws IOException {
+      return require(Long.BYTES).getLong();
+    }
+
+    // length-prefixed bytes
+    byte[] getBytes() throws IOException {
+      return getRaw(getInt());
+    }
+
+    byte[] getRaw(int length) throws IOException {
+      if (length < 0) throw new IOException("Binary expense file is truncated or corrupt");
+      byte[] bytes = new byte[length];
+      for (int offset = 0; offset < length; ) {
+        int chunk = Math.min(length - offset, require(1).remaining());
+        buffer.get(bytes, offset, chunk);
+        offset += chunk;
+      }
+      return bytes;
+    }
+
+    // makes sure at least the given number of bytes are buffered, reading more from the channel if needed
+    private ByteBuffer require(int size) throws IOException {
+      if (buffer.remaining() >= size) return buffer;
+      buffer.compact();
+      while (buffer.position() < size) {
+        int read = channel.read(buffer, next);
+        if (read < 0) throw new EOFException("Binary expense file is truncated");
+        next += read;
+      }
+      buffer.flip();
+      return buffer;
+    }
+
+  }
+
+}
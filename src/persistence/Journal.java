@@ -0,0 +1,495 @@
+package persistence;
+
+import model.Category;
+import model.EventUtil;
+import model.Expense;
+import model.ExpenseTracker;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+/**
+ * Journal - an append-only log of the changes made to an expense tracker since its file was last fully saved
+ * Saving appends just the new changes (one fsync for the whole group) instead of rewriting the file,
+ * and loading replays them on top of the file
+ * <p>
+ * Once the journal grows too large it is compacted in the background: new changes go to a second journal
+ * segment while the tracker's snapshot at that moment is written to a fresh file, which then atomically replaces
+ * the old file (and the second segment replaces the first). A crash at any point leaves a file and journal
+ * segments that replay to the latest saved state
+ * <p>
+ * Layout: int magic "EXPJ", int version, the stamps (long size, long modification time in millis) of the two
+ * files the journal can be replayed on top of, then records of int payload length, int payload CRC-32,
+ * and payload (an operation byte and its expenses)
+ */
+public final class Journal {
+
+  public static final String FILE_SUFFIX = ".journal";
+  public static final String NEXT_FILE_SUFFIX = ".journal.next";
+
+  static final int MAGIC = 'E' << 24 | 'X' << 16 | 'P' << 8 | 'J';
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 40;
+
+  private static final byte ADD = 1;
+  private static final byte DELETE = 2;
+  private static final byte UPDATE = 3;
+
+  // which fields an update record carries
+  private static final int DATE = 1;
+  private static final int CATEGORY = 1 << 1;
+  private static final int AMOUNT = 1 << 2;
+  private static final int DESCRIPTION = 1 << 3;
+
+  // the journal may grow to half the size of its snapshot (but always at least this much) before it's compacted
+  private static final long MIN_COMPACTION_SIZE = 1 << 20;
+
+  // compactions run one at a time, on a daemon thread (an unfinished compaction is harmless, see above)
+  private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "Journal compaction");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  // size and modification time of a snapshot file,
+  // so a journal is never replayed on top of a file that was rewritten behind its back
+  private record Stamp(long size, long modified) {
+    static final Stamp NONE = new Stamp(-1, -1);
+
+    static Stamp of(Path snapshot) throws IOException {
+      BasicFileAttributes attributes = Files.readAttributes(snapshot, BasicFileAttributes.class);
+      return new Stamp(attributes.size(), attributes.lastModifiedTime().toMillis());
+    }
+  }
+
+  // the start of a journal segment on disk: which files it applies to (its records start right after it)
+  private record Header(Stamp base, Stamp compacted) {
+    boolean appliesTo(Stamp stamp) {
+      return base.equals(stamp) || compacted.equals(stamp);
+    }
+
+    // reads a header, or returns null if it's stale, truncated, or not a journal at all
+    static Header read(DataInputStream in) throws IOException {
+      try {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+        return new Header(new Stamp(in.readLong(), in.readLong()), new Stamp(in.readLong(), in.readLong()));
+      } catch (EOFException e) {
+        return null;
+      }
+    }
+
+    void write(Path path) throws IOException {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header
+        .putInt(MAGIC)
+        .putInt(VERSION)
+        .putLong(base.size())
+        .putLong(base.modified())
+        .putLong(compacted.size())
+        .putLong(compacted.modified())
+        .flip();
+      try (FileChannel channel = FileChannel.open(
+        path,
+        StandardOpenOption.WRITE,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING
+      )) {
+        while (header.hasRemaining()) channel.write(header);
+        channel.force(false);
+      }
+    }
+  }
+
+  private final Path snapshot;
+  private final Path mainPath;
+  private final Path nextPath;
+
+  // all guarded by this, the compaction thread uses them too
+  private Path path; // segment that commits are appended to, the next segment while a compaction is running
+  private Header header;
+  private long size; // bytes at the start of the segment holding the header and complete records
+  private final ByteArrayOutputStream pending = new ByteArrayOutputStream(); // records not yet committed
+  private boolean checkpointRequired = false;
+  private Future<?> compaction = null; // running compaction, if any
+
+  private Journal(Path snapshot, Header header, long size) {
+    this.snapshot = snapshot.toAbsolutePath().normalize();
+    this.mainPath = pathFor(this.snapshot);
+    this.nextPath = nextPathFor(this.snapshot);
+    this.path = mainPath;
+    this.header = header;
+    this.size = size;
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the path of the journal belonging to the snapshot file at the given path
+  public static Path pathFor(Path snapshot) {
+    return snapshot.resolveSibling(snapshot.getFileName() + FILE_SUFFIX);
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the path of the second journal segment, which only exists while (or if a crash interrupted)
+  //          a compaction of the snapshot file at the given path
+  public static Path nextPathFor(Path snapshot) {
+    return snapshot.resolveSibling(snapshot.getFileName() + NEXT_FILE_SUFFIX);
+  }
+
+  // MODIFIES: the file system
+  // EFFECTS: starts a fresh, empty journal for the snapshot file at the given path, which must have just been saved
+  public static Journal create(Path snapshot) throws IOException {
+    Journal journal = new Journal(snapshot, new Header(Stamp.of(snapshot), Stamp.NONE), HEADER_SIZE);
+    journal.header.write(journal.mainPath);
+    Files.deleteIfExists(journal.nextPath);
+
+    EventUtil.log("Journal.create", journal.mainPath);
+    return journal;
+  }
+
+  // MODIFIES: tracker, the file system
+  // EFFECTS: replays the journal segments of the snapshot file at the given path onto the tracker (which must hold
+  //          exactly that snapshot) and returns the journal, ready to take more changes; a torn record at the end
+  //          (from a crash mid-save) is dropped, and missing or stale segments are skipped
+  //          throws if a record doesn't match the tracker, which only happens if the files were tampered with
+  public static Journal replay(Path snapshot, ExpenseTracker tracker) throws IOException {
+    Stamp stamp = Stamp.of(snapshot);
+
+    Journal journal = null;
+    Path mainPath = pathFor(snapshot);
+    if (Files.exists(mainPath)) {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(mainPath)));
+      Header header = Header.read(in);
+      if (header != null && header.appliesTo(stamp)) {
+        journal = new Journal(snapshot, header, HEADER_SIZE + replayRecords(in, tracker, mainPath));
+      } else {
+        EventUtil.warn("Journal.replay ignored stale journal", mainPath);
+      }
+    }
+
+    Path nextPath = nextPathFor(snapshot);
+    if (Files.exists(nextPath)) {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(nextPath)));
+      Header header = Header.read(in);
+      if (header != null && header.appliesTo(stamp)) {
+        // NOTE: a compaction was interrupted, the next save rewrites the whole file to clean up after it
+        journal = new Journal(snapshot, header, HEADER_SIZE + replayRecords(in, tracker, nextPath));
+        journal.requireCheckpoint();
+      } else {
+        EventUtil.warn("Journal.replay ignored stale journal", nextPath);
+      }
+    }
+
+    return journal != null ? journal : create(snapshot);
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns true if this is the journal of the snapshot file at the given path
+  public boolean isFor(Path snapshot) {
+    return this.snapshot.equals(snapshot.toAbsolutePath().normalize());
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns true if the next save can just commit this journal, false if it has to rewrite the whole file
+  //          because a change couldn't be journaled, a compaction failed, or the file changed on disk
+  public synchronized boolean canCommit() {
+    if (checkpointRequired) return false;
+    try {
+      return header.appliesTo(Stamp.of(snapshot));
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  // MODIFIES: this
+  // EFFECTS: gives up on journaling until the next checkpoint (e.g. when every expense was replaced at once),
+  //          later changes are not recorded, and canCommit returns false from now on
+  public synchronized void requireCheckpoint() {
+    checkpointRequired = true;
+    pending.reset();
+  }
+
+  // MODIFIES: this
+  // EFFECTS: records that the expense was added to the tracker
+  public synchronized void recordAdd(Expense expense) {
+    record(ADD, expense, null);
+  }
+
+  // MODIFIES: this
+  // EFFECTS: records that an expense with the given value was deleted from the tracker
+  public synchronized void recordDelete(Expense expense) {
+    record(DELETE, expense, null);
+  }
+
+  // MODIFIES: this
+  // EFFECTS: records that the tracked expense oldExpense was replaced by newExpense (see ExpenseTracker.update)
+  public synchronized void recordUpdate(Expense oldExpense, Expense newExpense) {
+    record(UPDATE, oldExpense, newExpense);
+  }
+
+  // MODIFIES: the file system
+  // EFFECTS: appends every change recorded since the last commit to the journal and syncs it to the disk,
+  //          only ever writing the new records, REQUIRES: canCommit()
+  public synchronized void commit() throws IOException {
+    if (checkpointRequired) throw new IllegalStateException("Journal needs a checkpoint");
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      // NOTE: cuts off anything past the last complete record, like a torn record from an earlier crash
+      channel.truncate(size);
+      ByteBuffer records = ByteBuffer.wrap(pending.toByteArray());
+      long position = size;
+      while (records.hasRemaining()) position += channel.write(records, position);
+      channel.force(false);
+      EventUtil.debug("Journal.commit", position - size, "bytes to", path);
+      size = position;
+      pending.reset();
+    }
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns true if the journal has grown large enough that it should be compacted
+  public synchronized boolean shouldCompact() {
+    if (compaction != null) return false;
+    try {
+      return size > Math.max(MIN_COMPACTION_SIZE, Files.size(snapshot) / 2);
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  // MODIFIES: this, the file system
+  // EFFECTS: starts compacting the journal into a fresh snapshot file holding the given expenses (which must be
+  //          the tracker's expenses right now, with everything committed) on a background thread, changes recorded
+  //          from now on go to a new segment, REQUIRES: canCommit(), and that nothing is pending
+  public synchronized void compact(List<Expense> expenses) throws IOException {
+    if (compaction != null) throw new IllegalStateException("Journal is already being compacted");
+    Stamp base = Stamp.of(snapshot);
+    header = new Header(base, Stamp.NONE);
+    header.write(nextPath);
+    path = nextPath;
+    size = HEADER_SIZE;
+    compaction = COMPACTOR.submit(() -> runCompaction(expenses, base));
+    EventUtil.log("Journal.compact", expenses.size(), "expenses into", snapshot);
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: waits for every compaction started so far (by any journal) to finish
+  public static void awaitCompactions() {
+    try {
+      COMPACTOR.submit(() -> { }).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private void runCompaction(List<Expense> expenses, Stamp base) {
+    try {
+      Path temporary = AtomicFiles.writeTemporary(snapshot, file -> writeSnapshot(expenses, file));
+      try {
+        Stamp compacted = Stamp.of(temporary); // NOTE: renaming keeps the modification time
+        synchronized (this) {
+          // NOTE: the next segment must say it applies to the new file before the new file takes over
+          header = new Header(base, compacted);
+          writeHeaderInPlace(nextPath, header);
+        }
+        AtomicFiles.moveIntoPlace(temporary, snapshot);
+      } finally {
+        Files.deleteIfExists(temporary);
+      }
+      synchronized (this) {
+        AtomicFiles.moveIntoPlace(nextPath, mainPath);
+        path = mainPath;
+        compaction = null;
+      }
+      EventUtil.log("Journal.compact finished", snapshot);
+    } catch (IOException | RuntimeException e) {
+      synchronized (this) {
+        requireCheckpoint();
+        compaction = null;
+      }
+      EventUtil.warn("Journal.compact failed", snapshot, e);
+    }
+  }
+
+  private static void writeHeaderInPlace(Path path, Header header) throws IOException {
+    ByteBuffer bytes = ByteBuffer.allocate(2 * Long.BYTES);
+    bytes.putLong(header.compacted().size()).putLong(header.compacted().modified()).flip();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      long position = HEADER_SIZE - 2 * Long.BYTES;
+      while (bytes.hasRemaining()) position += channel.write(bytes, position);
+      channel.force(false);
+    }
+  }
+
+  private void writeSnapshot(List<Expense> expenses, Path path) throws IOException {
+    if (BinaryPersistence.isBinaryFile(snapshot)) {
+      BinaryPersistence.writeExpensesFile(expenses, path);
+    } else {
+      Persistence.writeExpensesFile(expenses, path);
+    }
+  }
+
+  // replays every complete record, returns the number of bytes they took up
+  private static long replayRecords(DataInputStream in, ExpenseTracker tracker, Path path) throws IOException {
+    long size = 0;
+    int records = 0;
+    while (true) {
+      byte[] payload = readRecord(in);
+      if (payload == null) break;
+      apply(tracker, new DataInputStream(new ByteArrayInputStream(payload)));
+      size += 2 * Integer.BYTES + payload.length;
+      records++;
+    }
+    EventUtil.log("Journal.replay", records, "records from", path);
+    return size;
+  }
+
+  private void record(byte operation, Expense expense, Expense newExpense) {
+    if (checkpointRequired) return;
+    if (hasNullField(expense) || (newExpense != null && hasNullField(newExpense))) {
+      requireCheckpoint();
+      return;
+    }
+
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeByte(operation);
+      writeExpense(out, expense);
+      if (newExpense != null) writeChanges(out, expense, newExpense);
+
+      byte[] payload = bytes.toByteArray();
+      CRC32 crc = new CRC32();
+      crc.update(payload);
+
+      DataOutputStream record = new DataOutputStream(pending);
+      record.writeInt(payload.length);
+      record.writeInt((int) crc.getValue());
+      record.write(payload);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e); // can't happen, everything is written to memory
+    }
+  }
+
+  // the next record's payload, or null at the end of the journal or at a torn or corrupt record
+  private static byte[] readRecord(DataInputStream in) throws IOException {
+    if (in.available() < 2 * Integer.BYTES) return null;
+    int length = in.readInt();
+    int checksum = in.readInt();
+    if (length < 0 || length > in.available()) return null;
+    byte[] payload = in.readNBytes(length);
+    CRC32 crc = new CRC32();
+    crc.update(payload);
+    return (int) crc.getValue() == checksum ? payload : null;
+  }
+
+  private static void apply(ExpenseTracker tracker, DataInputStream in) throws IOException {
+    byte operation = in.readByte();
+    Expense expense = readExpense(in);
+    boolean applied = switch (operation) {
+      case ADD -> tracker.addExpense(expense);
+      case DELETE -> tracker.deleteExpense(expense);
+      case UPDATE -> tracker.update(expense, readChanges(in, expense)) == ExpenseTracker.UpdateResult.UPDATED;
+      default -> throw new IOException("Unknown journal operation " + operation);
+    };
+    if (!applied) {
+      throw new IOException("Journal doesn't match its expense file at " + expense);
+    }
+  }
+
+  private static void writeChanges(DataOutputStream out, Expense oldExpense, Expense newExpense) throws IOException {
+    int fields = 0;
+    if (!oldExpense.getDate().equals(newExpense.getDate())) fields |= DATE;
+    if (!oldExpense.getCategory().getName().equals(newExpense.getCategory().getName())) fields |= CATEGORY;
+    if (!oldExpense.getAmount().equals(newExpense.getAmount())) fields |= AMOUNT;
+    if (!oldExpense.getDescription().equals(newExpense.getDescription())) fields |= DESCRIPTION;
+
+    out.writeByte(fields);
+    if ((fields & DATE) != 0) out.writeLong(newExpense.getDate().toEpochDay());
+    if ((fields & CATEGORY) != 0) writeString(out, newExpense.getCategory().getName());
+    if ((fields & AMOUNT) != 0) writeAmount(out, newExpense.getAmount());
+    if ((fields & DESCRIPTION) != 0) writeString(out, newExpense.getDescription());
+  }
+
+  private static Expense readChanges(DataInputStream in, Expense expense) throws IOException {
+    int fields = in.readByte();
+    if ((fields & DATE) != 0) expense = expense.withDate(LocalDate.ofEpochDay(in.readLong()));
+    if ((fields & CATEGORY) != 0) expense = expense.withCategory(Category.fromName(readString(in)));
+    if ((fields & AMOUNT) != 0) expense = expense.withAmount(readAmount(in));
+    if ((fields & DESCRIPTION) != 0) expense = expense.withDescription(readString(in));
+    return expense;
+  }
+
+  private static void writeExpense(DataOutputStream out, Expense expense) throws IOException {
+    out.writeLong(expense.getDate().toEpochDay());
+    writeString(out, expense.getCategory().getName());
+    writeAmount(out, expense.getAmount());
+    writeString(out, expense.getDescription());
+  }
+
+  private static Expense readExpense(DataInputStream in) throws IOException {
+    return new Expense(
+      LocalDate.ofEpochDay(in.readLong()),
+      Category.fromName(readString(in)),
+      readAmount(in),
+      readString(in)
+    );
+  }
+
+  private static void writeAmount(DataOutputStream out, BigDecimal amount) throws IOException {
+    out.writeInt(amount.scale());
+    writeBytes(out, amount.unscaledValue().toByteArray());
+  }
+
+  private static BigDecimal readAmount(DataInputStream in) throws IOException {
+    int scale = in.readInt();
+    return new BigDecimal(new BigInteger(readBytes(in)), scale);
+  }
+
+  private static void writeString(DataOutputStream out, String string) throws IOException {
+    writeBytes(out, string.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return new String(readBytes(in), StandardCharsets.UTF_8);
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > in.available()) throw new IOException("Journal record is corrupt");
+    return in.readNBytes(length);
+  }
+
+  private static boolean hasNullField(Expense expense) {
+    return expense.getDate() == null
+      || expense.getCategory() == null
+      || expense.getAmount() == null
+      || expense.getDescription() == null;
+  }
+
+}
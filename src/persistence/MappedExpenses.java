@@ -0,0 +1,273 @@
+package persistence;
+
+import model.Category;
+import model.ColumnarExpenses;
+import model.Expense;
+import model.Money;
+import model.ParallelScan;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * Mapped expenses - an immutable list over the expenses in a memory-mapped binary expense file
+ * Nothing is decoded up front: filters and totals read the mapped columns directly,
+ * and an Expense object is only created when one is asked for with get
+ */
+public final class MappedExpenses extends AbstractList<Expense> implements ColumnarExpenses, RandomAccess {
+
+  // rows getTotal copies out of the file at a time, few enough to stay in the CPU's cache
+  private static final int SUM_CHUNK = 1 << 12;
+
+  // the mapped file, shared by every list that selects rows from it
+  private static final class Columns {
+    final LongBuffer amounts;
+    final IntBuffer dates;
+    final IntBuffer categories;
+    final IntBuffer descriptionEnds;
+    final ByteBuffer scales;
+    final ByteBuffer descriptions;
+    final BinaryPersistence.Header header;
+
+    Columns(FileChannel channel, BinaryPersistence.Header header) throws IOException {
+      int count = header.count();
+      this.amounts = map(channel, header.amountsStart(), (long) count * Long.BYTES).asLongBuffer();
+      this.dates = map(channel, header.datesStart(), (long) count * Integer.BYTES).asIntBuffer();
+      this.categories = map(channel, header.categoriesStart(), (long) count * Integer.BYTES).asIntBuffer();
+      this.descriptionEnds = map(channel, header.descriptionEndsStart(), (long) count * Integer.BYTES).asIntBuffer();
+      this.scales = map(channel, header.scalesStart(), count);
+      this.descriptions = map(channel, header.descriptionsStart(), header.descriptionBytes());
+      this.header = header;
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+      if (size > Integer.MAX_VALUE) throw new IOException("Binary expense file is too large to map");
+      return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+  }
+
+  private final Columns columns;
+  private final int[] rows; // rows of the file this list selects, or null if it selects a contiguous range of them
+  private final int from;
+  private final int to;
+
+  MappedExpenses(FileChannel channel, BinaryPersistence.Header header) throws IOException {
+    this(new Columns(channel, header), null, 0, header.count());
+  }
+
+  private MappedExpenses(Columns columns, int[] rows, int from, int to) {
+    this.columns = columns;
+    this.rows = rows;
+    this.from = from;
+    this.to = to;
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: decodes the expense at the given index into a new Expense object, throws if out of bounds
+  @Override
+  public Expense get(int index) {
+    Objects.checkIndex(index, size());
+    int row = row(index);
+    return new Expense(date(row), category(row), amount(row), description(row));
+  }
+
+  @Override
+  public int size() {
+    return to - from;
+  }
+
+  @Override
+  public MappedExpenses subList(int fromIndex, int toIndex) {
+    Objects.checkFromToIndex(fromIndex, toIndex, size());
+    return new MappedExpenses(columns, rows, from + fromIndex, from + toIndex);
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns true if the expenses in this list are in ascending order by date
+  @Override
+  public boolean isDateOrdered() {
+    return columns.header.isDateOrdered();
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the date of the expense at the given index without decoding the rest of it
+  public LocalDate getDate(int index) {
+    Objects.checkIndex(index, size());
+    return date(row(index));
+  }
+
+  // MODIFIES: NOTHING
+  // REQUIRES: that this list is date ordered
+  // EFFECTS: returns the index of the first expense dated on or after the given date
+  //          (or strictly after it, if after is true), or size() if there isn't one, in logarithmic time
+  @Override
+  public int indexOfDate(LocalDate date, boolean after) {
+    long epochDay = date.toEpochDay();
+    int low = 0;
+    int high = size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      int day = columns.dates.get(row(middle));
+      if (day < epochDay || (after && day == epochDay)) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the expenses in this list with the given category, only reading the category column
+  @Override
+  public MappedExpenses filterByCategory(Category category) {
+    Category[] dictionary = columns.header.categories();
+    boolean[] matches = new boolean[dictionary.length];
+    for (int i = 0; i < dictionary.length; i++) {
+      matches[i] = category.equals(dictionary[i]);
+    }
+    return select(row -> matches[categoryIndex(row)]);
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the expenses in this list dated from startDate to endDate (inclusive), only reading the date column
+  @Override
+  public MappedExpenses filterByDateRange(LocalDate startDate, LocalDate endDate) {
+    if (isDateOrdered()) {
+      return subList(indexOfDate(startDate, false), indexOfDate(endDate, true));
+    }
+    long first = startDate.toEpochDay();
+    long last = endDate.toEpochDay();
+    return select(row -> {
+      int day = columns.dates.get(row);
+      return day >= first && day <= last;
+    });
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the categories of the expenses in this list, only reading the category column
+  @Override
+  public Set<Category> getCategories() {
+    Category[] dictionary = columns.header.categories();
+    boolean[] seen = new boolean[dictionary.length];
+    Set<Category> categories = new HashSet<>();
+    for (int i = 0; i < size() && categories.size() < dictionary.length; i++) {
+      int index = categoryIndex(row(i));
+      if (!seen[index]) {
+        seen[index] = true;
+        categories.add(dictionary[index]);
+      }
+    }
+    return Set.copyOf(categories);
+  }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns the sum of the amounts of the expenses in this list (with a scale of at least 2),
+  //          only reading the amount columns, as plain longs of cents (see Money.Sum),
+  //          in parallel if this list is large (see ParallelScan)
+  @Override
+  public BigDecimal getTotal() {
+    return ParallelScan.scan(0, size(), this::sum, Money.Sum::add).toBigDecimal();
+  }
+
+  // the sum of the amounts of the expenses from index start to index end (exclusive),
+  // copied out of the mapped columns SUM_CHUNK rows at a time and added up by Money.Sum.addAllCents
+  private Money.Sum sum(int start, int end) {
+    Money.Sum sum = new Money.Sum();
+    long[] cents = new long[Math.min(end - start, SUM_CHUNK)];
+    byte[] scales = new byte[cents.length];
+    for (int chunk = start; chunk < end; chunk += cents.length) {
+      int length = Math.min(end - chunk, cents.length);
+      if (rows == null) {
+        columns.amounts.get(from + chunk, cents, 0, length);
+        columns.scales.get(from + chunk, scales, 0, length);
+      } else {
+        for (int i = 0; i < length; i++) {
+          int row = row(chunk + i);
+          cents[i] = columns.amounts.get(row);
+          scales[i] = columns.scales.get(row);
+        }
+      }
+      for (int i = 0; i < length; i++) {
+        // NOTE: amounts are nearly always stored in cents already, any other is converted, or added up on the side
+        if (scales[i] == Money.SCALE && cents[i] != Money.NOT_CENTS) continue;
+        long inCents = scales[i] == BinaryPersistence.BIG_AMOUNT_SCALE
+          ? Money.NOT_CENTS
+          : Money.toCents(cents[i], scales[i]);
+        if (inCents == Money.NOT_CENTS) sum.addRest(amount(row(chunk + i)));
+        cents[i] = inCents;
+      }
+      sum.addAllCents(cents, 0, length);
+    }
+    return sum;
+  }
+
+  // the rows of this list that match, in order, scanned in parallel if this list is large (see ParallelScan)
+  private MappedExpenses select(IntPredicate rowMatches) {
+    int[] selected = ParallelScan.select(size(), this::row, rowMatches);
+    return new MappedExpenses(columns, selected, 0, selected.length);
+  }
+
+  private int row(int index) {
+    return rows == null ? from + index : rows[from + index];
+  }
+
+  private LocalDate date(int row) {
+    return LocalDate.ofEpochDay(columns.dates.get(row));
+  }
+
+  private int categoryIndex(int row) {
+    return checkIndex(columns.categories.get(row), columns.header.categories().length);
+  }
+
+  private Category category(int row) {
+    return columns.header.categories()[categoryIndex(row)];
+  }
+
+  private BigDecimal amount(int row) {
+    long unscaled = columns.amounts.get(row);
+    byte scale = columns.scales.get(row);
+    if (scale == BinaryPersistence.BIG_AMOUNT_SCALE) {
+      BigDecimal[] bigAmounts = columns.header.bigAmounts();
+      return bigAmounts[checkIndex(unscaled, bigAmounts.length)];
+    }
+    return BigDecimal.valueOf(unscaled, scale);
+  }
+
+  private String description(int row) {
+    int start = row == 0 ? 0 : columns.descriptionEnds.get(row - 1);
+    int end = columns.descriptionEnds.get(row);
+    if (start < 0 || end < start || end > columns.descriptions.limit()) {
+      throw corrupt();
+    }
+    byte[] bytes = new byte[end - start];
+    columns.descriptions.get(start, bytes);
+    return BinaryPersistence.decode(bytes);
+  }
+
+  private static int checkIndex(long index, int length) {
+    try {
+      return BinaryPersistence.checkIndex(index, length);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static UncheckedIOException corrupt() {
+    return new UncheckedIOException(new IOException("Binary expense file is truncated or corrupt"));
+  }
+
+}
@@ -1,5 +1,8 @@
 package persistence;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 import model.Category;
 import model.EventUtil;
 import model.Expense;
@@ -7,16 +10,21 @@ import model.ExpenseTracker;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Persistence utilities - provides routines for encoding/decoding expenses
  * and expense trackers as JSON, and saving them to the disk
+ * Files are streamed one expense at a time, in the same format that JSONArray.toString() produces
  */
 public final class Persistence {
 
@@ -55,9 +63,8 @@ public final class Persistence {
   }
 
   // MODIFIES: tracker
-  // EFFECTS: restores an expense tracker from a JSON array, decoding each expense into an Expense object:
-  //          1. deletes all expenses in the tracker
-  //          2. adds all expenses from the JSON array to the tracker
+  // EFFECTS: restores an expense tracker from a JSON array, decoding each expense into an Expense object,
+  //          and replaces all expenses in the tracker with the decoded expenses in a single batch
   public static void restoreExpenseTracker(ExpenseTracker tracker, JSONArray jsonExpenseTracker) {
     List<Expense> newExpenseList = jsonExpenseTracker
       .toList()
@@ -67,30 +74,102 @@ public final class Persistence {
 
     EventUtil.log("restoreExpenseTracker", newExpenseList.size(), "expenses");
 
-    for (Expense oldExpense : tracker.getExpenses().toList()) tracker.deleteExpense(oldExpense);
-    for (Expense newExpense : newExpenseList) tracker.addExpense(newExpense);
+    tracker.replaceExpenses(newExpenseList);
   }
 
-  // MODIFIES: NOTHING
-  // EFFECTS: saves an expense tracker to a file at the specified path
+  // MODIFIES: writer
+  // EFFECTS: writes an expense as a JSON object, byte for byte the same as encodeExpense(expense).toString()
+  public static void writeExpense(JsonWriter writer, Expense expense) throws IOException {
+    writer.beginObject();
+    // JSONObject's key order, values quoted the way JSONObject quotes them
+    if (expense.getDate() != null) {
+      writer.name("date").jsonValue(JSONObject.quote(expense.getDate().toString()));
+    }
+    if (expense.getAmount() != null) {
+      writer.name("amount").jsonValue(JSONObject.numberToString(expense.getAmount()));
+    }
+    if (expense.getDescription() != null) {
+      writer.name("description").jsonValue(JSONObject.quote(expense.getDescription()));
+    }
+    if (expense.getCategory() != null) {
+      writer.name("category").jsonValue(JSONObject.quote(expense.getCategory().getName()));
+    }
+    writer.endObject();
+  }
+
+  // MODIFIES: reader
+  // EFFECTS: reads the next JSON object from the reader and decodes it into a new Expense object,
+  //          unknown keys are skipped, throws if any of the expense's fields are missing
+  public static Expense readExpense(JsonReader reader) throws IOException {
+    LocalDate date = null;
+    Category category = null;
+    BigDecimal amount = null;
+    String description = null;
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "date" -> date = LocalDate.parse(reader.nextString());
+        case "category" -> category = Category.fromName(reader.nextString());
+        case "amount" -> amount = new BigDecimal(reader.nextString());
+        case "description" -> description = reader.nextString();
+        default -> reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    return new Expense(
+      required(reader, "date", date),
+      required(reader, "category", category),
+      required(reader, "amount", amount),
+      required(reader, "description", description)
+    );
+  }
+
+  private static <T> T required(JsonReader reader, String name, T value) throws IOException {
+    if (value == null) throw new MalformedJsonException("Expense is missing \"" + name + "\" at path " + reader.getPath());
+    return value;
+  }
+
+  // MODIFIES: the file system
+  // EFFECTS: saves an expense tracker to a file at the specified path, writing one expense at a time,
+  //          the file is replaced atomically, so a crash mid-save leaves the old file intact
   public static void saveExpenseTrackerToFile(ExpenseTracker tracker, Path path) throws IOException {
     try {
-      String json = encodeExpenseTracker(tracker).toString();
-      Files.writeString(path, json);
+      AtomicFiles.write(path, temporary -> writeExpensesFile(tracker.getExpenses().toList(), temporary));
     } finally {
       EventUtil.log("saveExpenseTrackerToFile", path);
     }
   }
 
+  // MODIFIES: the file system
+  // EFFECTS: writes the expenses to a file at the specified path (in place, not atomically), one expense at a time
+  static void writeExpensesFile(List<Expense> expenses, Path path) throws IOException {
+    try (BufferedWriter out = Files.newBufferedWriter(path); JsonWriter writer = new JsonWriter(out)) {
+      writer.beginArray();
+      for (Expense expense : expenses) {
+        writeExpense(writer, expense);
+      }
+      writer.endArray();
+    }
+  }
+
   // MODIFIES: tracker
   // EFFECTS: restores an expense tracker from a file at the specified path:
-  //          1. reads the file as a JSON array, decoding each expense into an Expense object
-  //          2. deletes all expenses in the tracker
-  //          3. adds all expenses from the JSON array to the tracker
+  //          1. reads the file as a JSON array, decoding one expense at a time into an Expense object
+  //          2. replaces all expenses in the tracker with the decoded expenses
   public static void restoreExpenseTrackerFromFile(ExpenseTracker tracker, Path path) throws IOException {
-    try {
-      String json = Files.readString(path);
-      restoreExpenseTracker(tracker, new JSONArray(json));
+    try (BufferedReader in = Files.newBufferedReader(path); JsonReader reader = new JsonReader(in)) {
+      List<Expense> newExpenseList = new ArrayList<>();
+      reader.beginArray();
+      while (reader.hasNext()) {
+        newExpenseList.add(readExpense(reader));
+      }
+      reader.endArray();
+
+      EventUtil.log("restoreExpenseTracker", newExpenseList.size(), "expenses");
+
+      tracker.replaceExpenses(newExpenseList);
     } finally {
       EventUtil.log("restoreExpenseTrackerFromFile", path);
     }
@@ -0,0 +1,190 @@
+package tests;
+
+import model.Category;
+import model.Expense;
+import model.ExpenseTracker;
+import model.KnownCategory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import persistence.BinaryPersistence;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the BinaryPersistence class
+ */
+public final class BinaryPersistenceTests {
+
+  private final Path path = Path.of("./test-binary-persistence" + BinaryPersistence.FILE_EXTENSION);
+  private ExpenseTracker tracker;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    TestFixtures.deleteWithJournals(path);
+
+    tracker = new ExpenseTracker();
+
+    tracker.addExpense(new Expense(
+      LocalDate.parse("2025-01-05"),
+      KnownCategory.GROCERIES,
+      BigDecimal.valueOf(87_50, 2),
+      "Safeway - weekly groceries"
+    ));
+
+    tracker.addExpense(new Expense(
+      LocalDate.parse("2025-01-10"),
+      KnownCategory.TRANSPORTATION,
+      BigDecimal.valueOf(100_00, 2),
+      "Bus pass"
+    ));
+
+    tracker.addExpense(new Expense(
+      LocalDate.parse("2025-01-12"),
+      KnownCategory.DINING,
+      BigDecimal.valueOf(15_75, 2),
+      "Lunch at Koi Sushi"
+    ));
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    TestFixtures.deleteWithJournals(path);
+  }
+
+  @Test
+  void testIsBinaryFile() {
+    assertTrue(BinaryPersistence.isBinaryFile(Path.of("ledger.expenses")));
+    assertTrue(BinaryPersistence.isBinaryFile(Path.of("dir", "LEDGER.EXPENSES")));
+    assertFalse(BinaryPersistence.isBinaryFile(Path.of("ledger.json")));
+    assertFalse(BinaryPersistence.isBinaryFile(Path.of("expenses")));
+  }
+
+  @Test
+  void testSaveAndRestoreFromFile() throws IOException {
+    BinaryPersistence.saveExpenseTrackerToFile(tracker, path);
+
+    ExpenseTracker newTracker = new ExpenseTracker();
+    BinaryPersistence.restoreExpenseTrackerFromFile(newTracker, path);
+
+    assertEquals(tracker.getExpenses().toList(), newTracker.getExpenses().toList());
+    assertEquals(
+      tracker.getExpenses().toList().toString(),
+      newTracker.getExpenses().toList().toString()
+    );
+  }
+
+  @Test
+  void testSaveAndRestoreFromFile_empty() throws IOException {
+    BinaryPersistence.saveExpenseTrackerToFile(new ExpenseTracker(), path);
+
+    BinaryPersistence.restoreExpenseTrackerFromFile(tracker, path);
+
+    assertEquals(0, tracker.getExpenses().toList().size());
+  }
+
+  @Test
+  void testSaveAndRestoreFromFile_unusualValues() throws IOException {
+    List<Expense> expenses = List.of(
+      new Expense(LocalDate.of(-9999, 1, 1), Category.fromName("Binary Custom"), new BigDecimal("1E+300"), ""),
+      new Expense(LocalDate.parse("1970-01-01"), KnownCategory.RENT, new BigDecimal("-0.001"), "\u00e9\u6f22\uD83D\uDE00"),
+      new Expense(LocalDate.parse("2025-02-01"), KnownCategory.TRAVEL, new BigDecimal("12345678901234567890.12"), "big"),
+      new Expense(LocalDate.of(9999, 12, 31), Category.fromName("binary custom"), new BigDecimal(Long.MIN_VALUE), "min")
+    );
+    tracker.replaceExpenses(expenses);
+
+    BinaryPersistence.saveExpenseTrackerToFile(tracker, path);
+
+    ExpenseTracker newTracker = new ExpenseTracker();
+    BinaryPersistence.restoreExpenseTrackerFromFile(newTracker, path);
+
+    List<Expense> restored = newTracker.getExpenses().toList();
+    assertEquals(tracker.getExpenses().toList(), restored);
+    for (int i = 0; i < restored.size(); i++) {
+      Expense expected = tracker.getExpenses().toList().get(i);
+      assertEquals(expected.getAmount().scale(), restored.get(i).getAmount().scale());
+      assertEquals(expected.getCategory().getName(), restored.get(i).getCategory().getName());
+    }
+  }
+
+  @Test
+  void testSaveAndRestoreFromFile_manyExpenses() throws IOException {
+    List<Expense> expenses = new ArrayList<>();
+    for (int i = 0; i < 20_000; i++) {
+      expenses.add(new Expense(
+        LocalDate.parse("2020-01-01").plusDays(i % 1000),
+        Category.fromName("Binary Category " + (i % 37)),
+        BigDecimal.valueOf(i * 7L, i % 3),
+        "Expense number " + i
+      ));
+    }
+    tracker.replaceExpenses(expenses);
+
+    BinaryPersistence.saveExpenseTrackerToFile(tracker, path);
+
+    ExpenseTracker newTracker = new ExpenseTracker();
+    BinaryPersistence.restoreExpenseTrackerFromFile(newTracker, path);
+
+    assertEquals(tracker.getExpenses().toList(), newTracker.getExpenses().toList());
+  }
+
+  @Test
+  void testSaveToFile_dateOutOfRange() {
+    tracker.addExpense(new Expense(LocalDate.MAX, KnownCategory.TRAVEL, BigDecimal.ONE, "Far future"));
+
+    assertThrows(IOException.class, () -> BinaryPersistence.saveExpenseTrackerToFile(tracker, path));
+  }
+
+  @Test
+  void testSaveAndLoad_pickedByExtension() throws IOException {
+    tracker.save(path);
+
+    assertEquals('E', Files.readAllBytes(path)[0]);
+
+    ExpenseTracker newTracker = new ExpenseTracker();
+    newTracker.load(path);
+
+    assertEquals(tracker.getExpenses().toList(), newTracker.getExpenses().toList());
+  }
+
+  @Test
+  void testRestoreFromFile_notBinary() throws IOException {
+    Files.writeString(path, "[]");
+
+    assertThrows(IOException.class, () -> BinaryPersistence.restoreExpenseTrackerFromFile(tracker, path));
+    assertEquals(3, tracker.getExpenses().toList().size());
+  }
+
+  @Test
+  void testRestoreFromFile_unsupportedVersion() throws IOException {
+    BinaryPersistence.saveExpenseTrackerToFile(tracker, path);
+    byte[] bytes = Files.readAllBytes(path);
+    bytes[4] = 99;
+    Files.write(path, bytes);
+
+    assertThrows(IOException.class, () -> BinaryPersistence.restoreExpenseTrackerFromFile(tracker, path));
+  }
+
+  @Test
+  void testRestoreFromFile_truncated() throws IOException {
+    BinaryPersistence.saveExpenseTrackerToFile(tracker, path);
+    byte[] bytes = Files.readAllBytes(path);
+    Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+
+    assertThrows(IOException.class, () -> BinaryPersistence.restoreExpenseTrackerFromFile(tracker, path));
+    assertEquals(3, tracker.getExpenses().toList().size());
+  }
+
+}
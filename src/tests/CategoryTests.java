@@ -5,6 +5,12 @@ import model.CustomCategory;
 import model.KnownCategory;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -44,4 +50,51 @@ public final class CategoryTests {
     assertEquals(knownCategory, unknownCategory);
   }
 
+  @Test
+  void testHashCode_matchingKnownAndUnknown() {
+    assertEquals(KnownCategory.GROCERIES.hashCode(), new CustomCategory("Groceries").hashCode());
+    assertEquals(new CustomCategory("Other").hashCode(), new CustomCategory("Other").hashCode());
+  }
+
+  @Test
+  void testFromName_sameInstance() {
+    assertSame(KnownCategory.GROCERIES, Category.fromName("Groceries"));
+    assertSame(KnownCategory.GROCERIES, Category.fromName("GROCERIES"));
+    assertSame(Category.fromName("Interned Category"), Category.fromName("Interned Category"));
+    assertSame(Category.fromName("Interned Category"), Category.fromName("interned category"));
+  }
+
+  @Test
+  void testFromName_firstSpellingWins() {
+    Category category = Category.fromName("First Spelling Category");
+    assertEquals("First Spelling Category", Category.fromName("FIRST SPELLING CATEGORY").getName());
+    assertEquals(category, Category.fromName("first spelling category"));
+  }
+
+  @Test
+  void testFromName_concurrent() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Category>> futures = new ArrayList<>();
+      for (int i = 0; i < 64; i++) {
+        String name = i % 2 == 0 ? "Concurrent Category" : "CONCURRENT category";
+        futures.add(executor.submit(() -> Category.fromName(name)));
+      }
+      Category first = futures.getFirst().get();
+      for (Future<Category> future : futures) {
+        assertSame(first, future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void testEquals_ignoresCase() {
+    assertEquals(new CustomCategory("Pets"), new CustomCategory("PETS"));
+    assertEquals(new CustomCategory("Pets").hashCode(), new CustomCategory("PETS").hashCode());
+    assertEquals(KnownCategory.GROCERIES, new CustomCategory("groceries"));
+    assertNotEquals(new CustomCategory("Pets"), new CustomCategory("Pet"));
+  }
+
 }
@@ -0,0 +1,215 @@
+package tests;
+
+import model.Category;
+import model.CompactExpenses;
+import model.Expense;
+import model.ExpenseTracker;
+import model.ExpenseTrackerView;
+import model.FilterException;
+import model.KnownCategory;
+import model.NoResultsFilterException;
+import model.ParallelScan;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import persistence.BinaryPersistence;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the CompactExpenses class, and read-only expense tracker views over compact expenses
+ */
+public final class CompactExpensesTests {
+
+  private final Path path = Path.of("./test-compact-expenses" + BinaryPersistence.FILE_EXTENSION);
+  private List<Expense> expenses;
+  private ExpenseTracker tracker;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    TestFixtures.deleteWithJournals(path);
+
+    expenses = TestFixtures.randomExpenses(21, 2_000, "Compact Custom");
+    tracker = new ExpenseTracker();
+    tracker.replaceExpenses(expenses);
+    tracker.save(path);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    TestFixtures.deleteWithJournals(path);
+  }
+
+  @Test
+  void testCopyOf_keepsOrder() {
+    CompactExpenses compact = CompactExpenses.copyOf(expenses);
+
+    assertEquals(expenses, compact);
+    assertFalse(compact.isDateOrdered());
+    assertTrue(CompactExpenses.copyOf(tracker.getExpenses().toList()).isDateOrdered());
+  }
+
+  @Test
+  void testReadCompactExpenseFile_matchesTracker() throws IOException {
+    CompactExpenses compact = BinaryPersistence.readCompactExpenseFile(path);
+
+    assertTrue(compact.isDateOrdered());
+    assertEquals(tracker.getExpenses().toList(), compact);
+  }
+
+  @Test
+  void testGet_decodesFreshExpenses() {
+    CompactExpenses compact = CompactExpenses.copyOf(expenses);
+
+    assertEquals(compact.get(3), compact.get(3));
+    assertNotSame(compact.get(3), compact.get(3));
+    assertThrows(IndexOutOfBoundsException.class, () -> compact.get(compact.size()));
+
+    // whole cents come back with a scale of 2, anything else exactly as it was
+    assertEquals(new BigDecimal("5.00"), compact.getLast().getAmount());
+    assertEquals(new BigDecimal("1E+30"), compact.get(compact.size() - 2).getAmount());
+    assertEquals(expenses.get(7).getAmount(), compact.get(7).getAmount());
+  }
+
+  @Test
+  void testBuilder_buildThenAddMore() {
+    CompactExpenses.Builder builder = new CompactExpenses.Builder(2);
+    builder.add(expenses.get(0)).add(expenses.get(1));
+    CompactExpenses first = builder.build();
+    builder.add(expenses.get(2));
+
+    assertEquals(expenses.subList(0, 2), first);
+    assertEquals(expenses.subList(0, 3), builder.build());
+  }
+
+  @Test
+  void testOpenCompact_filters() throws IOException, FilterException {
+    ExpenseTrackerView compact = ExpenseTracker.openCompact(path);
+    ExpenseTrackerView expected = tracker.getExpenses();
+
+    assertEquals(0, expected.getTotal().compareTo(compact.getTotal()));
+    assertEquals(expected.getCategories(), compact.getCategories());
+
+    for (Category category : expected.getCategories()) {
+      ExpenseTrackerView filtered = compact.filterByCategory(category);
+      assertInstanceOf(CompactExpenses.class, filtered.toList());
+      assertEquals(expected.filterByCategory(category).toList(), filtered.toList());
+      assertEquals(0, expected.filterByCategory(category).getTotal().compareTo(filtered.getTotal()));
+    }
+
+    LocalDate start = LocalDate.parse("2024-02-10");
+    LocalDate end = LocalDate.parse("2024-06-30");
+    assertEquals(
+      expected.filterByDateRange(start, end).toList(),
+      compact.filterByDateRange(start, end).toList()
+    );
+    assertEquals(
+      expected.filterByCategory(KnownCategory.GROCERIES).filterByDateRange(start, end).toList(),
+      compact.filterByCategory(KnownCategory.GROCERIES).filterByDateRange(start, end).toList()
+    );
+    assertEquals(expected.limitToAmount(10).toList(), compact.limitToAmount(10).toList());
+  }
+
+  @Test
+  void testFilterByDateRange_unordered() throws FilterException {
+    ExpenseTrackerView compact = new ExpenseTrackerView(CompactExpenses.copyOf(expenses));
+    ExpenseTrackerView expected = new ExpenseTrackerView(expenses);
+    LocalDate start = LocalDate.parse("2024-02-10");
+    LocalDate end = LocalDate.parse("2024-06-30");
+
+    assertEquals(expected.filterByDateRange(start, end).toList(), compact.filterByDateRange(start, end).toList());
+    assertThrows(NoResultsFilterException.class, () -> compact.filterByCategory(KnownCategory.PAYMENT));
+  }
+
+  @Test
+  void testSummarize_matchesFiltering() {
+    CompactExpenses compact = CompactExpenses.copyOf(expenses);
+    Random random = new Random(23);
+    for (int query = 0; query < 200; query++) {
+      LocalDate start = random.nextInt(10) == 0 ? null : LocalDate.parse("2024-01-01").plusDays(random.nextInt(400));
+      LocalDate end = random.nextInt(10) == 0 ? null : LocalDate.parse("2024-01-01").plusDays(random.nextInt(400));
+      Category category = random.nextInt(3) == 0 ? null : KnownCategory.KNOWN_CATEGORIES.get(random.nextInt(5));
+      // queries run on a selection of rows, a contiguous range with a huge amount, or one with only small amounts
+      CompactExpenses list = switch (random.nextInt(3)) {
+        case 0 -> compact.filterByCategory(KnownCategory.RENT);
+        case 1 -> compact.subList(100, 2_002);
+        default -> compact.subList(0, 1_500);
+      };
+
+      List<BigDecimal> amounts = list
+        .stream()
+        .filter(expense -> start == null || !expense.getDate().isBefore(start))
+        .filter(expense -> end == null || !expense.getDate().isAfter(end))
+        .filter(expense -> category == null || expense.getCategory().equals(category))
+        .map(Expense::getAmount)
+        .toList();
+      CompactExpenses.Summary summary = list.summarize(start, end, category);
+
+      assertEquals(amounts.size(), summary.count());
+      assertEquals(0, amounts.stream().reduce(BigDecimal.ZERO, BigDecimal::add).compareTo(summary.total()));
+      if (amounts.isEmpty()) {
+        assertNull(summary.min());
+        assertNull(summary.max());
+      } else {
+        assertEquals(0, amounts.stream().min(BigDecimal::compareTo).orElseThrow().compareTo(summary.min()));
+        assertEquals(0, amounts.stream().max(BigDecimal::compareTo).orElseThrow().compareTo(summary.max()));
+      }
+    }
+  }
+
+  @Test
+  void testSummarize_largeList() {
+    // large enough to be split across the fork-join pool, with a few amounts that aren't whole cents
+    int count = ParallelScan.THRESHOLD * 4 + 3;
+    CompactExpenses.Builder builder = new CompactExpenses.Builder(count);
+    List<BigDecimal> groceries = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Category category = i % 4 == 0 ? KnownCategory.GROCERIES : KnownCategory.RENT;
+      BigDecimal amount = BigDecimal.valueOf(i % 9_973, i % 50_000 == 0 ? 3 : 2);
+      builder.add(LocalDate.parse("2024-01-01").plusDays(i % 365), category, amount, "");
+      if (category == KnownCategory.GROCERIES) groceries.add(amount);
+    }
+    CompactExpenses compact = builder.build();
+
+    CompactExpenses.Summary summary = compact.summarize(null, null, KnownCategory.GROCERIES);
+    assertEquals(groceries.size(), summary.count());
+    assertEquals(0, groceries.stream().reduce(BigDecimal.ZERO, BigDecimal::add).compareTo(summary.total()));
+    assertEquals(0, BigDecimal.ZERO.compareTo(summary.min()));
+    assertEquals(0, new BigDecimal("99.72").compareTo(summary.max()));
+
+    CompactExpenses filtered = compact.filterByCategory(KnownCategory.GROCERIES);
+    assertEquals(groceries.size(), filtered.size());
+    for (int i = 0; i < filtered.size(); i += 997) {
+      assertEquals(0, groceries.get(i).compareTo(filtered.get(i).getAmount()));
+    }
+  }
+
+  @Test
+  void testGetTotal_overflowingLongs() {
+    CompactExpenses compact = CompactExpenses.copyOf(List.of(
+      new Expense(LocalDate.parse("2024-01-01"), KnownCategory.RENT, BigDecimal.valueOf(Long.MAX_VALUE, 2), "a"),
+      new Expense(LocalDate.parse("2024-01-02"), KnownCategory.RENT, BigDecimal.valueOf(Long.MAX_VALUE, 2), "b"),
+      new Expense(LocalDate.parse("2024-01-03"), KnownCategory.RENT, BigDecimal.valueOf(-5, 0), "c")
+    ));
+
+    assertEquals(
+      BigDecimal.valueOf(Long.MAX_VALUE, 2).multiply(BigDecimal.TWO).subtract(BigDecimal.valueOf(5)),
+      compact.getTotal()
+    );
+  }
+
+}
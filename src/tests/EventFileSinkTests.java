@@ -0,0 +1,107 @@
+package tests;
+
+import model.Event;
+import model.EventFileSink;
+import model.EventLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the EventFileSink class
+ */
+public final class EventFileSinkTests {
+
+  private final Path path = Path.of("./test-event-sink.log");
+  private final EventLog log = EventLog.getInstance();
+  private EventFileSink sink;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    tearDown();
+    log.clear();
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    if (sink != null) sink.close();
+    for (int file = 0; file < 4; file++) {
+      Files.deleteIfExists(file == 0 ? path : Path.of(path + "." + file));
+    }
+  }
+
+  // the descriptions in the given log file, in order
+  private static List<String> descriptions(Path file) throws IOException {
+    List<String> descriptions = new ArrayList<>();
+    for (String line : Files.readAllLines(file)) {
+      descriptions.add(line.substring(line.indexOf(' ') + 1));
+    }
+    return descriptions;
+  }
+
+  @Test
+  void testSink_writesInBackground() throws IOException, InterruptedException {
+    sink = new EventFileSink(log, path, 1 << 20, 2, 5);
+    log.logEvent(new Event("Background event"));
+
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (!(Files.exists(path) && descriptions(path).contains("Background event"))) {
+      assertTrue(System.currentTimeMillis() < deadline);
+      Thread.sleep(5);
+    }
+    assertEquals(List.of("Event log cleared.", "Background event"), descriptions(path));
+  }
+
+  @Test
+  void testClose_writesEverything() throws IOException {
+    sink = new EventFileSink(log, path, 1 << 20, 2, 60_000);
+    for (int i = 0; i < 100; i++) {
+      log.logEvent(new Event("Event " + i));
+    }
+    sink.close();
+
+    List<String> descriptions = descriptions(path);
+    assertEquals(101, descriptions.size());
+    assertEquals("Event 99", descriptions.get(100));
+
+    // nothing is written once it's closed
+    log.logEvent(new Event("Too late"));
+    sink.close();
+    assertEquals(101, descriptions(path).size());
+  }
+
+  @Test
+  void testSink_rotatesBySize() throws IOException, InterruptedException {
+    sink = new EventFileSink(log, path, 200, 3, 1);
+    for (int i = 0; i < 40; i++) {
+      log.logEvent(new Event("Rotated event " + i));
+      Thread.sleep(3);
+    }
+    sink.close();
+
+    assertTrue(Files.exists(sink.pathFor(1)));
+    assertTrue(Files.exists(sink.pathFor(2)));
+    assertFalse(Files.exists(sink.pathFor(3)));
+    assertTrue(descriptions(path).contains("Rotated event 39"));
+    assertFalse(descriptions(sink.pathFor(2)).contains("Rotated event 0"));
+  }
+
+  @Test
+  void testConstructor_invalidLimits() {
+    assertThrows(IllegalArgumentException.class, () -> new EventFileSink(log, path, 0, 2, 10));
+    assertThrows(IllegalArgumentException.class, () -> new EventFileSink(log, path, 100, 0, 10));
+    assertThrows(IllegalArgumentException.class, () -> new EventFileSink(log, path, 100, 2, 0));
+  }
+
+}
@@ -2,10 +2,15 @@ package tests;
 
 import model.Event;
 import model.EventLog;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 
@@ -18,6 +23,7 @@ public final class EventLogTest {
 	private Event e1;
 	private Event e2;
 	private Event e3;
+	private final Path spillFile = Path.of("./test-event-log-spill.log");
 
 	@BeforeEach
 	public void loadEvents() {
@@ -53,4 +59,110 @@ public final class EventLogTest {
 		assertEquals("Event log cleared.", itr.next().getDescription());
 		assertFalse(itr.hasNext());
 	}
+
+	@AfterEach
+	public void restoreConfiguration() throws IOException {
+		EventLog.getInstance().configure(EventLog.DEFAULT_CAPACITY, EventLog.OverflowPolicy.DROP_OLDEST, null);
+		Files.deleteIfExists(spillFile);
+	}
+
+	private List<String> descriptions() {
+		List<String> l = new ArrayList<String>();
+		for (Event next : EventLog.getInstance()) {
+			l.add(next.getDescription());
+		}
+		return l;
+	}
+
+	@Test
+	public void testDropOldest() {
+		EventLog el = EventLog.getInstance();
+		el.configure(4, EventLog.OverflowPolicy.DROP_OLDEST, null);
+		el.logEvent(new Event("A4"));
+		assertEquals(List.of("A1", "A2", "A3", "A4"), descriptions());
+
+		el.logEvent(new Event("A5"));
+		el.logEvent(new Event("A6"));
+		assertEquals(List.of("A3", "A4", "A5", "A6"), descriptions());
+		assertEquals(4, el.getCapacity());
+	}
+
+	@Test
+	public void testConfigure_keepsMostRecent() {
+		EventLog el = EventLog.getInstance();
+		el.logEvent(new Event("A4"));
+		el.logEvent(new Event("A5"));
+		el.configure(4, EventLog.OverflowPolicy.DROP_OLDEST, null);
+		assertEquals(List.of("A2", "A3", "A4", "A5"), descriptions());
+
+		el.configure(8, EventLog.OverflowPolicy.DROP_OLDEST, null);
+		el.logEvent(new Event("A6"));
+		assertEquals(List.of("A2", "A3", "A4", "A5", "A6"), descriptions());
+	}
+
+	@Test
+	public void testConfigure_invalid() {
+		EventLog el = EventLog.getInstance();
+		assertThrows(IllegalArgumentException.class, () -> el.configure(2, EventLog.OverflowPolicy.DROP_OLDEST, null));
+		assertThrows(IllegalArgumentException.class, () -> el.configure(6, EventLog.OverflowPolicy.DROP_OLDEST, null));
+		assertThrows(IllegalArgumentException.class, () -> el.configure(4, EventLog.OverflowPolicy.SPILL_TO_DISK, null));
+	}
+
+	@Test
+	public void testSpillToDisk() throws IOException {
+		EventLog el = EventLog.getInstance();
+		el.clear();
+		el.configure(4, EventLog.OverflowPolicy.SPILL_TO_DISK, spillFile);
+		for (int i = 1; i <= 10; i++) {
+			el.logEvent(new Event("B" + i));
+		}
+		EventLog.awaitSpills();
+
+		// each half of the log is spilled before it's overwritten, so everything older than the log is on disk
+		List<String> spilled = new ArrayList<String>();
+		for (String line : Files.readAllLines(spillFile)) {
+			spilled.add(line.substring(line.indexOf(' ') + 1));
+		}
+		assertTrue(spilled.size() >= 7);
+		assertEquals("Event log cleared.", spilled.get(0));
+		for (int i = 1; i < spilled.size(); i++) {
+			assertEquals("B" + i, spilled.get(i));
+		}
+		assertEquals(List.of("B7", "B8", "B9", "B10"), descriptions());
+		assertEquals(EventLog.OverflowPolicy.SPILL_TO_DISK, el.getOverflowPolicy());
+	}
+
+	@Test
+	public void testLogEvent_concurrent() throws InterruptedException {
+		EventLog el = EventLog.getInstance();
+		el.clear();
+		Thread[] threads = new Thread[8];
+		for (int t = 0; t < threads.length; t++) {
+			String name = "T" + t + "-";
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 2_000; i++) {
+					el.logEvent(new Event(name + i));
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		List<String> l = descriptions();
+		assertEquals(1 + 8 * 2_000, l.size());
+		assertEquals(l.size(), new HashSet<String>(l).size());
+		// each thread's events are in the order it logged them
+		for (int t = 0; t < threads.length; t++) {
+			int last = -1;
+			for (String description : l) {
+				if (description.startsWith("T" + t + "-")) {
+					int i = Integer.parseInt(description.substring(description.indexOf('-') + 1));
+					assertTrue(i > last);
+					last = i;
+				}
+			}
+		}
+	}
 }
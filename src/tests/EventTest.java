@@ -8,32 +8,35 @@ import java.util.Calendar;
 import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 /**
  * Unit tests for the Event class
  */
 public final class EventTest {
 	private Event e;
-	private Date d;
+	private Date before;
+	private Date after;
 
-	//NOTE: these tests might fail if time at which line (2) below is executed
-	//is different from time that line (1) is executed.  Lines (1) and (2) must
-	//run in same millisecond for this test to make sense and pass.
+	//NOTE: the event is stamped some time between line (1) and line (2)
 
 	@BeforeEach
 	public void runBefore() {
-		e = new Event("Sensor open at door");   // (1)
-		d = Calendar.getInstance().getTime();   // (2)
+		before = Calendar.getInstance().getTime();   // (1)
+		e = new Event("Sensor open at door");
+		after = Calendar.getInstance().getTime();    // (2)
 	}
 
 	@Test
 	public void testEvent() {
 		assertEquals("Sensor open at door", e.getDescription());
-		assertEquals(d, e.getDate());
+		assertFalse(e.getDate().before(before));
+		assertFalse(e.getDate().after(after));
+		assertEquals(e.getDate().getTime(), Math.floorDiv(e.getTime(), 1_000_000L));
 	}
 
 	@Test
 	public void testToString() {
-		assertEquals(d.toString() + "\n" + "Sensor open at door", e.toString());
+		assertEquals(e.getDate().toString() + "\n" + "Sensor open at door", e.toString());
 	}
 }
@@ -8,7 +8,12 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -36,12 +41,16 @@ public final class EventUtilTest {
       }
 
       // just re-load the entire class lmao
-      // orphan classloader is perfect for this
+      // (only the class itself, everything it uses still comes from the real classloader)
 
-      var hackLoader = new ClassLoader(null) {
+      var hackLoader = new ClassLoader(realClazz.getClassLoader()) {
         @Override
-        protected Class<?> findClass(String name) {
-          return defineClass(name, bytes, 0, bytes.length);
+        protected Class<?> loadClass(String className, boolean resolve) throws ClassNotFoundException {
+          if (!className.equals(name)) return super.loadClass(className, resolve);
+          synchronized (getClassLoadingLock(className)) {
+            Class<?> loaded = findLoadedClass(className);
+            return loaded != null ? loaded : defineClass(className, bytes, 0, bytes.length);
+          }
         }
       };
 
@@ -79,6 +88,11 @@ public final class EventUtilTest {
     System.setOut(realOut);
   }
 
+  @AfterEach
+  void restoreLevel() {
+    EventUtil.setLevel(EventUtil.Level.INFO);
+  }
+
   @Test
   void testGet() {
     assertNotNull(EventUtil.get());
@@ -97,6 +111,48 @@ public final class EventUtilTest {
     assertEquals("", EventUtil.get().iterator().next().getDescription());
   }
 
+  @Test
+  void testLog_mutableRenderedWhenLogged() {
+    StringBuilder value = new StringBuilder("before");
+
+    EventUtil.log("Logged", value);
+    value.replace(0, value.length(), "after");
+    assertEquals("Logged before", EventUtil.get().iterator().next().getDescription());
+  }
+
+  @Test
+  void testLog_levels() {
+    assertFalse(EventUtil.isEnabled(EventUtil.Level.DEBUG));
+    EventUtil.debug("hidden");
+    EventUtil.warn("shown");
+    assertEquals("shown", EventUtil.get().iterator().next().getDescription());
+
+    EventUtil.setLevel(EventUtil.Level.DEBUG);
+    assertEquals(EventUtil.Level.DEBUG, EventUtil.getLevel());
+    EventUtil.debug("now shown");
+    EventUtil.setLevel(EventUtil.Level.WARNING);
+    EventUtil.log("hidden again");
+
+    List<String> descriptions = new ArrayList<>();
+    EventUtil.get().forEach(event -> descriptions.add(event.getDescription()));
+    assertEquals(List.of("shown", "now shown"), descriptions);
+    assertThrows(IllegalArgumentException.class, () -> EventUtil.setLevel(null));
+  }
+
+  @Test
+  void testStartSink() throws IOException {
+    Path path = Path.of("./test-event-util-sink.log");
+    Files.deleteIfExists(path);
+
+    EventUtil.startSink(path, 1 << 20, 1);
+    EventUtil.log("sunk", "event");
+    EventUtil.stopSink();
+    EventUtil.stopSink();
+
+    assertTrue(Files.readString(path).contains(" sunk event"));
+    Files.delete(path);
+  }
+
   @Test
   void testDump() {
     EventUtil.log("my awesome event");
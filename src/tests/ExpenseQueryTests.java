@@ -0,0 +1,175 @@
+package tests;
+
+import model.Category;
+import model.CompactExpenses;
+import model.Expense;
+import model.ExpenseQuery;
+import model.ExpenseTracker;
+import model.ExpenseTrackerView;
+import model.FilterException;
+import model.KnownCategory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the ExpenseQuery class, and running queries with ExpenseTrackerView.query
+ */
+public final class ExpenseQueryTests {
+
+  private List<Expense> expenses;
+  private ExpenseTracker tracker;
+
+  @BeforeEach
+  void setUp() {
+    expenses = new ArrayList<>();
+    Random random = new Random(25);
+    for (int i = 0; i < 1_000; i++) {
+      expenses.add(new Expense(
+        LocalDate.parse("2024-01-01").plusDays(random.nextInt(200)),
+        KnownCategory.KNOWN_CATEGORIES.get(random.nextInt(5)),
+        BigDecimal.valueOf(random.nextInt(20_000), i % 9 == 0 ? 3 : 2),
+        (i % 4 == 0 ? "Coffee at " : "Lunch at ") + (i % 3 == 0 ? "CAFÉ" : "Diner") + " " + i
+      ));
+    }
+    tracker = new ExpenseTracker();
+    tracker.replaceExpenses(expenses);
+  }
+
+  @Test
+  void testBuilder_invalid() {
+    ExpenseQuery.Builder builder = new ExpenseQuery.Builder();
+
+    assertThrows(IllegalArgumentException.class, () -> builder.category(null));
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> builder.dateRange(LocalDate.parse("2024-02-02"), LocalDate.parse("2024-02-01"))
+    );
+    assertThrows(IllegalArgumentException.class, () -> builder.amountRange(BigDecimal.TEN, BigDecimal.ONE));
+    assertThrows(IllegalArgumentException.class, () -> builder.orderBy(null));
+    assertThrows(IllegalArgumentException.class, () -> builder.offset(-1));
+    assertThrows(IllegalArgumentException.class, () -> builder.limit(-1));
+  }
+
+  @Test
+  void testQuery_noMatchesIsEmpty() {
+    ExpenseTrackerView view = tracker.getExpenses();
+    ExpenseQuery query = new ExpenseQuery.Builder()
+      .category(KnownCategory.PAYMENT)
+      .dateRange(LocalDate.parse("2024-02-01"), LocalDate.parse("2024-02-29"))
+      .build();
+
+    assertTrue(view.query(query).isEmpty());
+    assertTrue(view.query(new ExpenseQuery.Builder().descriptionContains("nothing like this").build()).isEmpty());
+    assertTrue(new ExpenseTrackerView(List.of()).query(new ExpenseQuery.Builder().build()).isEmpty());
+    assertTrue(view.query(new ExpenseQuery.Builder().offset(5_000).build()).isEmpty());
+  }
+
+  @Test
+  void testQuery_everythingKeepsView() {
+    ExpenseTrackerView view = tracker.getExpenses();
+
+    assertEquals(view.toList(), view.query(new ExpenseQuery.Builder().build()).toList());
+  }
+
+  @Test
+  void testQuery_sameAsChainedFilters() throws FilterException {
+    ExpenseTrackerView view = tracker.getExpenses();
+    LocalDate start = LocalDate.parse("2024-03-01");
+    LocalDate end = LocalDate.parse("2024-04-30");
+    ExpenseQuery query = new ExpenseQuery.Builder()
+      .category(KnownCategory.GROCERIES)
+      .dateRange(start, end)
+      .limit(10)
+      .build();
+
+    ExpenseTrackerView expected = view.filterByCategory(KnownCategory.GROCERIES).filterByDateRange(start, end).limitToAmount(10);
+    ExpenseTrackerView result = view.query(query);
+
+    assertEquals(expected.toList(), result.toList());
+    assertEquals(0, expected.getTotal().compareTo(result.getTotal()));
+    assertEquals(expected.toList(), result.filterByDateRange(start, end).toList());
+  }
+
+  @Test
+  void testQuery_descriptionIgnoresCase() {
+    ExpenseTrackerView view = tracker.getExpenses();
+    List<Expense> result = view.query(new ExpenseQuery.Builder().descriptionContains("café").build()).toList();
+
+    assertEquals(expenses.stream().filter(expense -> expense.getDescription().contains("CAFÉ")).count(), result.size());
+  }
+
+  @Test
+  void testQuery_matchesReference() {
+    ExpenseTrackerView tracked = tracker.getExpenses();
+    ExpenseTrackerView plain = new ExpenseTrackerView(expenses);
+    ExpenseTrackerView compact = new ExpenseTrackerView(CompactExpenses.copyOf(expenses));
+    ExpenseTrackerView orderedCompact = new ExpenseTrackerView(CompactExpenses.copyOf(tracked.toList()));
+
+    Random random = new Random(26);
+    for (int i = 0; i < 300; i++) {
+      Set<Category> categories = new HashSet<>();
+      for (int j = random.nextInt(4); j > 0; j--) {
+        categories.add(KnownCategory.KNOWN_CATEGORIES.get(random.nextInt(6)));
+      }
+      LocalDate start = random.nextBoolean() ? null : LocalDate.parse("2024-01-01").plusDays(random.nextInt(100));
+      LocalDate end = random.nextBoolean() ? null : LocalDate.parse("2024-04-10").plusDays(random.nextInt(100));
+      BigDecimal min = random.nextInt(3) > 0 ? null : BigDecimal.valueOf(random.nextInt(10_000), random.nextInt(4));
+      BigDecimal max = random.nextInt(3) > 0 || min == null ? null : min.add(BigDecimal.valueOf(random.nextInt(5_000), 2));
+      String description = random.nextInt(4) > 0 ? null : random.nextBoolean() ? "coffee" : "cafÉ";
+      ExpenseQuery.Order order = ExpenseQuery.Order.values()[random.nextInt(4)];
+      int offset = random.nextInt(3) > 0 ? 0 : random.nextInt(50);
+      int limit = random.nextInt(3) > 0 ? ExpenseQuery.NO_LIMIT : random.nextInt(30);
+
+      ExpenseQuery query = new ExpenseQuery.Builder()
+        .categories(categories)
+        .dateRange(start, end)
+        .amountRange(min, max)
+        .descriptionContains(description)
+        .orderBy(order)
+        .offset(offset)
+        .limit(limit)
+        .build();
+
+      for (ExpenseTrackerView view : List.of(tracked, plain, compact, orderedCompact)) {
+        Stream<Expense> reference = view.toList().stream()
+          .filter(expense -> categories.isEmpty() || categories.contains(expense.getCategory()))
+          .filter(expense -> start == null || !expense.getDate().isBefore(start))
+          .filter(expense -> end == null || !expense.getDate().isAfter(end))
+          .filter(expense -> min == null || expense.getAmount().compareTo(min) >= 0)
+          .filter(expense -> max == null || expense.getAmount().compareTo(max) <= 0)
+          .filter(expense -> description == null || expense.getDescription().toLowerCase().contains(description.toLowerCase()));
+        List<Expense> expected = sorted(reference, order)
+          .skip(offset)
+          .limit(limit)
+          .toList();
+
+        assertEquals(expected, view.query(query).toList(), query.toString());
+      }
+    }
+  }
+
+  // the reference order: expenses that tie keep their order, and newest first is the reverse of oldest first
+  private static Stream<Expense> sorted(Stream<Expense> expenses, ExpenseQuery.Order order) {
+    return switch (order) {
+      case DATE_ASCENDING -> expenses.sorted(Comparator.comparing(Expense::getDate));
+      case DATE_DESCENDING -> expenses.sorted(Comparator.comparing(Expense::getDate)).toList().reversed().stream();
+      case AMOUNT_ASCENDING -> expenses.sorted(Comparator.comparing(Expense::getAmount));
+      case AMOUNT_DESCENDING -> expenses.sorted(Comparator.comparing(Expense::getAmount).reversed());
+    };
+  }
+
+}
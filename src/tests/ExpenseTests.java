@@ -10,6 +10,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -35,20 +36,20 @@ public final class ExpenseTests {
   }
 
   @Test
-  void testSetDate_differentDate() {
-    expense.setDate(LocalDate.parse("2024-12-25"));
+  void testWithDate_differentDate() {
+    expense = expense.withDate(LocalDate.parse("2024-12-25"));
     assertEquals(LocalDate.parse("2024-12-25"), expense.getDate());
   }
 
   @Test
-  void testSetDate_futureDate() {
-    expense.setDate(LocalDate.parse("2032-06-15"));
+  void testWithDate_futureDate() {
+    expense = expense.withDate(LocalDate.parse("2032-06-15"));
     assertEquals(LocalDate.parse("2032-06-15"), expense.getDate());
   }
 
   @Test
-  void testSetDate_pastDate() {
-    expense.setDate(LocalDate.parse("1997-01-01"));
+  void testWithDate_pastDate() {
+    expense = expense.withDate(LocalDate.parse("1997-01-01"));
     assertEquals(LocalDate.parse("1997-01-01"), expense.getDate());
   }
 
@@ -58,21 +59,21 @@ public final class ExpenseTests {
   }
 
   @Test
-  void testSetCategory_differentCategory() {
-    expense.setCategory(KnownCategory.DINING);
+  void testWithCategory_differentCategory() {
+    expense = expense.withCategory(KnownCategory.DINING);
     assertEquals(KnownCategory.DINING, expense.getCategory());
   }
 
   @Test
-  void testSetCategory_anotherCategory() {
-    expense.setCategory(KnownCategory.TRAVEL);
-    expense.setCategory(KnownCategory.ENTERTAINMENT);
+  void testWithCategory_anotherCategory() {
+    expense = expense.withCategory(KnownCategory.TRAVEL);
+    expense = expense.withCategory(KnownCategory.ENTERTAINMENT);
     assertEquals(KnownCategory.ENTERTAINMENT, expense.getCategory());
   }
 
   @Test
-  void testSetCategory_customCategory() {
-    expense.setCategory(new CustomCategory("My Awesome Category"));
+  void testWithCategory_customCategory() {
+    expense = expense.withCategory(new CustomCategory("My Awesome Category"));
     assertEquals("My Awesome Category", expense.getCategory().getName());
   }
 
@@ -82,26 +83,26 @@ public final class ExpenseTests {
   }
 
   @Test
-  void testSetAmount_zero() {
-    expense.setAmount(BigDecimal.ZERO);
+  void testWithAmount_zero() {
+    expense = expense.withAmount(BigDecimal.ZERO);
     assertEquals(BigDecimal.ZERO, expense.getAmount());
   }
 
   @Test
-  void testSetAmount_positiveValue() {
-    expense.setAmount(BigDecimal.valueOf(75));
+  void testWithAmount_positiveValue() {
+    expense = expense.withAmount(BigDecimal.valueOf(75));
     assertEquals(BigDecimal.valueOf(75), expense.getAmount());
   }
 
   @Test
-  void testSetAmount_negativeValue() {
-    expense.setAmount(BigDecimal.valueOf(-30));
+  void testWithAmount_negativeValue() {
+    expense = expense.withAmount(BigDecimal.valueOf(-30));
     assertEquals(BigDecimal.valueOf(-30), expense.getAmount());
   }
 
   @Test
-  void testSetAmount_decimalValue() {
-    expense.setAmount(BigDecimal.valueOf(13_37, 2));
+  void testWithAmount_decimalValue() {
+    expense = expense.withAmount(BigDecimal.valueOf(13_37, 2));
     assertEquals(BigDecimal.valueOf(13.37), expense.getAmount());
   }
 
@@ -111,24 +112,36 @@ public final class ExpenseTests {
   }
 
   @Test
-  void testSetDescription_differentDescription() {
-    expense.setDescription("Walmart");
+  void testWithDescription_differentDescription() {
+    expense = expense.withDescription("Walmart");
     assertEquals("Walmart", expense.getDescription());
   }
 
   @Test
-  void testSetDescription_emptyString() {
-    expense.setDescription("");
+  void testWithDescription_emptyString() {
+    expense = expense.withDescription("");
     assertEquals("", expense.getDescription());
   }
 
   @Test
-  void testSetDescription_longDescription() {
+  void testWithDescription_longDescription() {
     String description = "I went on a run to the grocery store and got ingredients to make burgers";
-    expense.setDescription(description);
+    expense = expense.withDescription(description);
     assertEquals(description, expense.getDescription());
   }
 
+  @Test
+  void testWith_leavesOriginalUnchanged() {
+    Expense changed = expense
+      .withDate(LocalDate.parse("2024-12-25"))
+      .withCategory(KnownCategory.DINING)
+      .withAmount(BigDecimal.ONE)
+      .withDescription("Walmart");
+
+    assertEquals(new Expense(LocalDate.parse("2024-12-25"), KnownCategory.DINING, BigDecimal.ONE, "Walmart"), changed);
+    assertEquals(new Expense(LocalDate.parse("2025-01-01"), KnownCategory.GROCERIES, BigDecimal.valueOf(120), "Save-On Foods"), expense);
+  }
+
   @Test
   void testToString_basic() {
     assertEquals("2025-01-01\tGroceries\t$120.00\tSave-On Foods", expense.toString());
@@ -136,20 +149,20 @@ public final class ExpenseTests {
 
   @Test
   void testToString_emptyDescription() {
-    expense.setDescription("");
+    expense = expense.withDescription("");
     assertEquals("2025-01-01\tGroceries\t$120.00\t", expense.toString());
   }
 
   @Test
   void testToString_longDescription() {
     String description = "I went on a run to the grocery store and got ingredients to make burgers";
-    expense.setDescription(description);
+    expense = expense.withDescription(description);
     assertEquals("2025-01-01\tGroceries\t$120.00\t" + description, expense.toString());
   }
 
   @Test
   void testToString_negativeAmount() {
-    expense.setAmount(BigDecimal.valueOf(-20));
+    expense = expense.withAmount(BigDecimal.valueOf(-20));
     assertEquals("2025-01-01\tGroceries\t-$20.00\tSave-On Foods", expense.toString());
   }
 
@@ -165,4 +178,34 @@ public final class ExpenseTests {
     assertTrue(expense.compareTo(expense2) < 0);
   }
 
+  @Test
+  void testEquals_sameValues() {
+    Expense expense2 = new Expense(LocalDate.parse("2025-01-01"), KnownCategory.GROCERIES, BigDecimal.valueOf(120), "Save-On Foods");
+    assertEquals(expense, expense2);
+    assertEquals(expense.hashCode(), expense2.hashCode());
+  }
+
+  @Test
+  void testEquals_amountScaleIgnored() {
+    Expense expense2 = new Expense(LocalDate.parse("2025-01-01"), KnownCategory.GROCERIES, new BigDecimal("120.00"), "Save-On Foods");
+    assertEquals(expense, expense2);
+    assertEquals(expense.hashCode(), expense2.hashCode());
+  }
+
+  @Test
+  void testEquals_differentValues() {
+    assertNotEquals(expense, new Expense(LocalDate.parse("2025-01-02"), KnownCategory.GROCERIES, BigDecimal.valueOf(120), "Save-On Foods"));
+    assertNotEquals(expense, new Expense(LocalDate.parse("2025-01-01"), KnownCategory.DINING, BigDecimal.valueOf(120), "Save-On Foods"));
+    assertNotEquals(expense, new Expense(LocalDate.parse("2025-01-01"), KnownCategory.GROCERIES, BigDecimal.valueOf(121), "Save-On Foods"));
+    assertNotEquals(expense, new Expense(LocalDate.parse("2025-01-01"), KnownCategory.GROCERIES, BigDecimal.valueOf(120), "Safeway"));
+  }
+
+  @Test
+  void testEquals_afterWith() {
+    Expense expense2 = new Expense(LocalDate.parse("2025-01-01"), KnownCategory.GROCERIES, BigDecimal.valueOf(120), "Safeway");
+    assertNotEquals(expense, expense2);
+    expense2 = expense2.withDescription("Save-On Foods");
+    assertEquals(expense, expense2);
+  }
+
 }
@@ -1,15 +1,20 @@
 package tests;
 
 import model.*;
+import model.ExpenseTracker.UpdateResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -121,17 +126,74 @@ public final class ExpenseTrackerTests {
   }
 
   @Test
-  void testGetExpenses_immutableViewCopyIsShallow() {
+  void testGetExpenses_viewsShareExpenses() {
     ExpenseTrackerView expenses1 = expenseTracker.getExpenses();
     ExpenseTrackerView expenses2 = expenseTracker.getExpenses();
 
     assertEquals(expenses1.toList(), expenses2.toList());
+    assertSame(expenses1.toList().getFirst(), expenses2.toList().getFirst());
 
-    expenses1.toList().getFirst().setAmount(BigDecimal.valueOf(1234_56, 2));
+    Expense first = expenses1.toList().getFirst();
+    assertEquals(UpdateResult.UPDATED, expenseTracker.update(first, first.withAmount(BigDecimal.valueOf(1234_56, 2))));
 
-    assertEquals(BigDecimal.valueOf(1234_56, 2), expenses2.toList().getFirst().getAmount());
+    // views are snapshots, the update is only visible in new ones
+    assertEquals(first, expenses2.toList().getFirst());
+    assertEquals(BigDecimal.valueOf(1234_56, 2), expenseTracker.getExpenses().toList().getFirst().getAmount());
+  }
+
+  @Test
+  void testGetExpenses_snapshotsSurviveManyChanges() {
+    ExpenseTracker tracker = new ExpenseTracker();
+    List<Expense> reference = new ArrayList<>();
+    List<ExpenseTrackerView> snapshots = new ArrayList<>();
+    List<List<Expense>> snapshotContents = new ArrayList<>();
+    Random random = new Random(210);
+
+    for (int i = 0; i < 2000; i++) {
+      if (!reference.isEmpty() && random.nextInt(3) == 0) {
+        Expense expense = reference.remove(random.nextInt(reference.size()));
+        assertTrue(tracker.deleteExpense(expense));
+      } else {
+        Expense expense = new Expense(
+          LocalDate.parse("2025-01-01").plusDays(random.nextInt(60)),
+          KnownCategory.GROCERIES,
+          BigDecimal.valueOf(i, 2),
+          "Expense #" + i
+        );
+        assertTrue(tracker.addExpense(expense));
+        reference.add(expense);
+      }
+      if (i % 100 == 0) {
+        snapshots.add(tracker.getExpenses());
+        snapshotContents.add(sortedByDate(reference));
+      }
+    }
+
+    assertEquals(sortedByDate(reference), tracker.getExpenses().toList());
+    for (int i = 0; i < snapshots.size(); i++) {
+      assertEquals(snapshotContents.get(i), snapshots.get(i).toList());
+      assertEquals(snapshotContents.get(i).size(), snapshots.get(i).size());
+    }
+  }
 
-    assertEquals(expenses1.toList().getFirst(), expenses2.toList().getFirst());
+  @Test
+  void testGetExpenses_indexingMatchesIteration() {
+    List<Expense> expenses = expenseTracker.getExpenses().toList();
+    List<Expense> iterated = new ArrayList<>(expenses);
+
+    for (int i = 0; i < expenses.size(); i++) {
+      assertSame(iterated.get(i), expenses.get(i));
+      assertSame(iterated.get(i), expenseTracker.getExpenses().getExpenseAt(i));
+    }
+    assertEquals(iterated.subList(3, 7), expenses.subList(3, 7));
+    assertEquals(iterated.subList(4, 6), expenses.subList(3, 7).subList(1, 3));
+  }
+
+  private static List<Expense> sortedByDate(List<Expense> expenses) {
+    // NOTE: stable sort, so same-date expenses stay in insertion order, just like the tracker
+    List<Expense> sorted = new ArrayList<>(expenses);
+    sorted.sort(Comparator.comparing(Expense::getDate));
+    return sorted;
   }
 
   @Test
@@ -185,7 +247,7 @@ public final class ExpenseTrackerTests {
   }
 
   @Test
-  void testAddExpense_duplicateButNotEqual() {
+  void testAddExpense_duplicateByValue() {
     ExpenseTracker tracker = new ExpenseTracker();
     Expense expense1 = new Expense(
       LocalDate.parse("2025-03-01"),
@@ -201,10 +263,66 @@ public final class ExpenseTrackerTests {
     );
 
     assertTrue(tracker.addExpense(expense1));
+    assertFalse(tracker.addExpense(expense2));
+    assertEquals(1, tracker.getExpenses().toList().size());
+    assertSame(expense1, tracker.getExpenses().toList().getFirst());
+  }
+
+  @Test
+  void testAddExpense_duplicateByValueDifferentScale() {
+    ExpenseTracker tracker = new ExpenseTracker();
+    Expense expense1 = new Expense(
+      LocalDate.parse("2025-03-01"),
+      KnownCategory.GROCERIES,
+      new BigDecimal("12.50"),
+      "Safeway"
+    );
+    Expense expense2 = new Expense(
+      LocalDate.parse("2025-03-01"),
+      KnownCategory.GROCERIES,
+      new BigDecimal("12.5"),
+      "Safeway"
+    );
+
+    assertTrue(tracker.addExpense(expense1));
+    assertFalse(tracker.addExpense(expense2));
+  }
+
+  @Test
+  void testAddExpense_duplicateAfterEdit() {
+    ExpenseTracker tracker = new ExpenseTracker();
+    Expense expense1 = new Expense(
+      LocalDate.parse("2025-03-01"),
+      KnownCategory.GROCERIES,
+      BigDecimal.valueOf(50_00, 2),
+      "Groceries"
+    );
+    Expense expense2 = new Expense(
+      LocalDate.parse("2025-03-01"),
+      KnownCategory.GROCERIES,
+      BigDecimal.valueOf(60_00, 2),
+      "Groceries"
+    );
+
+    assertTrue(tracker.addExpense(expense1));
+    assertEquals(UpdateResult.UPDATED, tracker.update(expense1, expense1.withAmount(BigDecimal.valueOf(60_00, 2))));
+    assertFalse(tracker.addExpense(expense2));
+
+    assertEquals(UpdateResult.UPDATED, tracker.update(expense2, expense2.withAmount(BigDecimal.valueOf(70_00, 2))));
     assertTrue(tracker.addExpense(expense2));
     assertEquals(2, tracker.getExpenses().toList().size());
   }
 
+  @Test
+  void testAddExpense_sharedWithAnotherTracker() {
+    ExpenseTracker tracker = new ExpenseTracker();
+    Expense expense = expenseTracker.getExpenses().toList().getFirst();
+
+    assertTrue(tracker.addExpense(expense));
+    assertTrue(expenseTracker.deleteExpense(expense));
+    assertEquals(List.of(expense), tracker.getExpenses().toList());
+  }
+
   @Test
   void testAddExpense_addedOutOfOrder() {
     ExpenseTracker tracker = new ExpenseTracker();
@@ -230,6 +348,155 @@ public final class ExpenseTrackerTests {
     assertEquals(expense2, expenses.get(1));
   }
 
+  @Test
+  void testAddExpense_sameDateKeepsInsertionOrder() {
+    ExpenseTracker tracker = new ExpenseTracker();
+    Expense expense1 = new Expense(
+      LocalDate.parse("2025-03-01"),
+      KnownCategory.GROCERIES,
+      BigDecimal.valueOf(50_00, 2),
+      "Groceries"
+    );
+    Expense expense2 = new Expense(
+      LocalDate.parse("2025-02-14"),
+      KnownCategory.DINING,
+      BigDecimal.valueOf(40_00, 2),
+      "Dinner"
+    );
+    Expense expense3 = new Expense(
+      LocalDate.parse("2025-03-01"),
+      KnownCategory.DINING,
+      BigDecimal.valueOf(15_00, 2),
+      "Lunch"
+    );
+
+    assertTrue(tracker.addExpense(expense1));
+    assertTrue(tracker.addExpense(expense2));
+    assertTrue(tracker.addExpense(expense3));
+
+    assertEquals(List.of(expense2, expense1, expense3), tracker.getExpenses().toList());
+  }
+
+  @Test
+  void testAddExpense_manyOutOfOrder() {
+    ExpenseTracker tracker = new ExpenseTracker();
+    for (int i = 0; i < 1000; i++) {
+      tracker.addExpense(new Expense(
+        LocalDate.parse("2025-01-01").plusDays((i * 37L) % 365),
+        KnownCategory.GROCERIES,
+        BigDecimal.valueOf(i, 2),
+        "Expense #" + i
+      ));
+    }
+
+    List<Expense> expenses = tracker.getExpenses().toList();
+    assertEquals(1000, expenses.size());
+    for (int i = 1; i < expenses.size(); i++) {
+      assertFalse(expenses.get(i).getDate().isBefore(expenses.get(i - 1).getDate()));
+    }
+  }
+
+  @Test
+  void testUpdate_basic() {
+    List<Expense> expenses = expenseTracker.getExpenses().toList();
+    Expense expense = expenses.get(3);
+    Expense updated = expense.withDescription("Updated").withCategory(KnownCategory.HEALTH);
+
+    assertEquals(UpdateResult.UPDATED, expenseTracker.update(expense, updated));
+
+    // same date, so it keeps its place
+    assertEquals(updated, expenseTracker.getExpenses().toList().get(3));
+    assertNull(expenseTracker.findExpense(expense));
+    assertSame(updated, expenseTracker.findExpense(updated));
+    assertEquals(10, expenseTracker.getExpenses().size());
+  }
+
+  @Test
+  void testFindExpense_byValueFromSnapshot() {
+    ExpenseTracker tracker = new ExpenseTracker();
+    Expense expense = new Expense(LocalDate.parse("2025-03-01"), KnownCategory.GROCERIES, new BigDecimal("12.50"), "Safeway");
+    Expense sameDay = new Expense(LocalDate.parse("2025-03-01"), KnownCategory.GROCERIES, new BigDecimal("3.00"), "Safeway");
+    tracker.replaceExpenses(List.of(sameDay, expense));
+
+    assertSame(expense, tracker.findExpense(
+      new Expense(LocalDate.parse("2025-03-01"), Category.fromName("groceries"), new BigDecimal("12.5"), "Safeway")
+    ));
+    assertNull(tracker.findExpense(expense.withDate(LocalDate.parse("2025-03-02"))));
+    assertNull(tracker.findExpense(expense.withCategory(KnownCategory.RENT)));
+    assertNull(tracker.findExpense(expense.withCategory(null)));
+
+    tracker.replaceExpenses(List.of());
+    assertNull(tracker.findExpense(expense));
+  }
+
+  @Test
+  void testUpdate_dateChangeReorders() throws FilterException {
+    Expense expense = expenseTracker.getExpenses().toList().get(3);
+    Expense updated = expense.withDate(LocalDate.parse("2030-01-01"));
+
+    assertEquals(UpdateResult.UPDATED, expenseTracker.update(expense, updated));
+
+    List<Expense> expenses = expenseTracker.getExpenses().toList();
+    assertEquals(updated, expenses.getLast());
+    for (int i = 1; i < expenses.size(); i++) {
+      assertFalse(expenses.get(i).getDate().isBefore(expenses.get(i - 1).getDate()));
+    }
+    assertEquals(List.of(updated), expenseTracker.getExpenses().filterByCategory(updated.getCategory()).toList());
+  }
+
+  @Test
+  void testUpdate_manyDateChangesKeepOrder() throws FilterException {
+    ExpenseTracker tracker = new ExpenseTracker();
+    List<Expense> expected = new ArrayList<>();
+    Random random = new Random(19);
+    for (int i = 0; i < 2_000; i++) {
+      Expense expense = new Expense(
+        LocalDate.parse("2025-01-01").plusDays(random.nextInt(60)),
+        KnownCategory.KNOWN_CATEGORIES.get(random.nextInt(3)),
+        BigDecimal.valueOf(i),
+        "Expense " + i
+      );
+      tracker.addExpense(expense);
+      expected.add(expense);
+    }
+    expected.sort(null);
+
+    for (int i = 0; i < 2_000; i++) {
+      int index = random.nextInt(expected.size());
+      Expense expense = expected.remove(index);
+      Expense moved = expense.withDate(LocalDate.parse("2025-01-01").plusDays(random.nextInt(60)));
+      assertEquals(UpdateResult.UPDATED, tracker.update(expense, moved));
+      // a moved expense goes after everything already on its new date, just like a newly added one
+      if (!moved.getDate().equals(expense.getDate())) {
+        index = 0;
+        while (index < expected.size() && !expected.get(index).getDate().isAfter(moved.getDate())) index++;
+      }
+      expected.add(index, moved);
+    }
+
+    assertEquals(expected, tracker.getExpenses().toList());
+    assertEquals(
+      expected.stream().filter(expense -> expense.getCategory() == KnownCategory.KNOWN_CATEGORIES.get(1)).toList(),
+      tracker.getExpenses().filterByCategory(KnownCategory.KNOWN_CATEGORIES.get(1)).toList()
+    );
+  }
+
+  @Test
+  void testUpdate_notPresentOrDuplicate() {
+    List<Expense> expenses = expenseTracker.getExpenses().toList();
+    Expense notPresent = new Expense(LocalDate.parse("2099-12-31"), new CustomCategory("Other"), BigDecimal.ONE, "Nope");
+
+    assertEquals(UpdateResult.NOT_PRESENT, expenseTracker.update(notPresent, notPresent.withDescription("Still nope")));
+    assertEquals(UpdateResult.DUPLICATE, expenseTracker.update(expenses.get(0), expenses.get(1)));
+    assertEquals(expenses, expenseTracker.getExpenses().toList());
+
+    // updating an expense to an equal value is fine
+    assertEquals(
+      UpdateResult.UPDATED,
+      expenseTracker.update(expenses.get(0), expenses.get(0).withAmount(expenses.get(0).getAmount().setScale(4)))
+    );
+  }
+
   @Test
   void testDeleteExpense_basic() {
     List<Expense> expenses = expenseTracker.getExpenses().toList();
@@ -274,7 +541,7 @@ public final class ExpenseTrackerTests {
   }
 
   @Test
-  void testDeleteExpense_duplicateButNotEqual() {
+  void testDeleteExpense_duplicateByValue() {
     ExpenseTracker tracker = new ExpenseTracker();
 
     Expense expense1 = new Expense(
@@ -293,27 +560,212 @@ public final class ExpenseTrackerTests {
       "Test"
     );
 
-    assertFalse(tracker.deleteExpense(expense2));
+    assertTrue(tracker.deleteExpense(expense2));
+    assertFalse(tracker.deleteExpense(expense1));
 
-    assertEquals(1, tracker.getExpenses().toList().size());
+    assertEquals(0, tracker.getExpenses().toList().size());
+  }
+
+  @Test
+  void testAddExpenses_basic() {
+    ExpenseTracker tracker = new ExpenseTracker();
+    Expense expense1 = new Expense(LocalDate.parse("2025-03-02"), KnownCategory.DINING, BigDecimal.valueOf(15_00, 2), "Lunch");
+    Expense expense2 = new Expense(LocalDate.parse("2025-03-01"), KnownCategory.GROCERIES, BigDecimal.valueOf(50_00, 2), "Groceries");
+
+    assertEquals(2, tracker.addExpenses(List.of(expense1, expense2)));
+    assertEquals(List.of(expense2, expense1), tracker.getExpenses().toList());
+  }
+
+  @Test
+  void testAddExpenses_skipsDuplicates() {
+    Expense tracked = expenseTracker.getExpenses().toList().getFirst();
+    Expense copyOfTracked = new Expense(tracked.getDate(), tracked.getCategory(), tracked.getAmount(), tracked.getDescription());
+    Expense newExpense = new Expense(LocalDate.parse("2025-03-01"), KnownCategory.GROCERIES, BigDecimal.valueOf(50_00, 2), "Groceries");
+    Expense copyOfNewExpense = new Expense(LocalDate.parse("2025-03-01"), KnownCategory.GROCERIES, BigDecimal.valueOf(50_00, 2), "Groceries");
+
+    assertEquals(1, expenseTracker.addExpenses(List.of(tracked, copyOfTracked, newExpense, copyOfNewExpense)));
+    assertEquals(11, expenseTracker.getExpenses().size());
+    assertSame(newExpense, expenseTracker.getExpenses().toList().getLast());
+  }
+
+  @Test
+  void testDeleteExpenses_basic() {
+    List<Expense> expenses = expenseTracker.getExpenses().toList();
+    Expense notPresent = new Expense(LocalDate.parse("2099-12-31"), new CustomCategory("Other"), BigDecimal.valueOf(999_99, 2), "Non-existent expense");
+
+    assertEquals(3, expenseTracker.deleteExpenses(List.of(expenses.get(0), expenses.get(5), expenses.get(9), notPresent)));
+    assertEquals(7, expenseTracker.getExpenses().size());
+    assertFalse(expenseTracker.getExpenses().toList().contains(expenses.get(5)));
+  }
+
+  @Test
+  void testReplaceExpenses_basic() {
+    List<Expense> oldExpenses = expenseTracker.getExpenses().toList();
+    Expense expense1 = new Expense(LocalDate.parse("2025-03-02"), KnownCategory.DINING, BigDecimal.valueOf(15_00, 2), "Lunch");
+    Expense expense2 = new Expense(LocalDate.parse("2025-03-01"), KnownCategory.GROCERIES, BigDecimal.valueOf(50_00, 2), "Groceries");
+
+    assertEquals(2, expenseTracker.replaceExpenses(List.of(expense1, expense2, expense1)));
+    assertEquals(List.of(expense2, expense1), expenseTracker.getExpenses().toList());
+
+    assertEquals(10, new ExpenseTracker().addExpenses(oldExpenses));
+  }
+
+  @Test
+  void testReplaceExpenses_withOwnExpenses() {
+    List<Expense> expenses = expenseTracker.getExpenses().toList();
+
+    assertEquals(10, expenseTracker.replaceExpenses(expenses));
+    assertEquals(expenses, expenseTracker.getExpenses().toList());
+  }
+
+  @Test
+  void testReplaceExpenses_empty() {
+    assertEquals(0, expenseTracker.replaceExpenses(List.of()));
+    assertTrue(expenseTracker.getExpenses().isEmpty());
+  }
+
+  @Test
+  void testTotals_basic() {
+    assertEquals(new BigDecimal("1656.05"), expenseTracker.getTotal());
+    assertEquals(10, expenseTracker.getCount());
+
+    assertEquals(new BigDecimal("34.25"), expenseTracker.getTotal(KnownCategory.DINING));
+    assertEquals(2, expenseTracker.getCount(KnownCategory.DINING));
+    assertEquals(new BigDecimal("0.00"), expenseTracker.getTotal(KnownCategory.TRAVEL));
+    assertEquals(0, expenseTracker.getCount(KnownCategory.TRAVEL));
+
+    assertEquals(new BigDecimal("62.30"), expenseTracker.getTotal(LocalDate.parse("2025-01-20")));
+    assertEquals(1, expenseTracker.getCount(LocalDate.parse("2025-01-20")));
+    assertEquals(0, expenseTracker.getCount(LocalDate.parse("2025-01-21")));
+
+    assertEquals(new BigDecimal("437.55"), expenseTracker.getTotal(YearMonth.parse("2025-01")));
+    assertEquals(8, expenseTracker.getCount(YearMonth.parse("2025-01")));
+    assertEquals(new BigDecimal("1218.50"), expenseTracker.getTotal(YearMonth.parse("2025-02")));
+    assertEquals(new BigDecimal("0.00"), expenseTracker.getTotal(YearMonth.parse("2025-03")));
+  }
+
+  @Test
+  void testTotals_followChanges() {
+    Random random = new Random(20);
+    List<Expense> expected = new ArrayList<>(expenseTracker.getExpenses().toList());
+    LocalDate start = LocalDate.parse("2024-12-01");
+
+    for (int i = 0; i < 3000; i++) {
+      int change = random.nextInt(3);
+      if (change == 0 || expected.isEmpty()) {
+        Expense expense = new Expense(
+          start.plusDays(random.nextInt(120)),
+          KnownCategory.KNOWN_CATEGORIES.get(random.nextInt(4)),
+          BigDecimal.valueOf(random.nextInt(100_00), 2),
+          "Expense " + i
+        );
+        assertTrue(expenseTracker.addExpense(expense));
+        expected.add(expense);
+      } else if (change == 1) {
+        assertTrue(expenseTracker.deleteExpense(expected.remove(random.nextInt(expected.size()))));
+      } else {
+        int index = random.nextInt(expected.size());
+        Expense moved = expected.get(index)
+          .withDate(start.plusDays(random.nextInt(120)))
+          .withAmount(BigDecimal.valueOf(random.nextInt(100_00), 2));
+        if (expenseTracker.update(expected.get(index), moved) == UpdateResult.UPDATED) expected.set(index, moved);
+      }
+    }
+
+    assertEquals(total(expected), expenseTracker.getTotal());
+    assertEquals(expected.size(), expenseTracker.getCount());
+    for (Category category : KnownCategory.KNOWN_CATEGORIES) {
+      List<Expense> inCategory = expected.stream().filter(expense -> expense.getCategory().equals(category)).toList();
+      assertEquals(total(inCategory), expenseTracker.getTotal(category));
+      assertEquals(inCategory.size(), expenseTracker.getCount(category));
+    }
+    for (LocalDate day = start; day.isBefore(start.plusDays(120)); day = day.plusDays(1)) {
+      LocalDate date = day;
+      List<Expense> onDay = expected.stream().filter(expense -> expense.getDate().equals(date)).toList();
+      assertEquals(total(onDay), expenseTracker.getTotal(day));
+      assertEquals(onDay.size(), expenseTracker.getCount(day));
+    }
+    for (YearMonth month = YearMonth.from(start); !month.isAfter(YearMonth.parse("2025-04")); month = month.plusMonths(1)) {
+      YearMonth yearMonth = month;
+      List<Expense> inMonth = expected.stream().filter(expense -> YearMonth.from(expense.getDate()).equals(yearMonth)).toList();
+      assertEquals(total(inMonth), expenseTracker.getTotal(month));
+      assertEquals(inMonth.size(), expenseTracker.getCount(month));
+    }
+  }
+
+  private static BigDecimal total(List<Expense> expenses) {
+    return expenses.stream().map(Expense::getAmount).reduce(new BigDecimal("0.00"), BigDecimal::add);
   }
 
   @Test
   void testSaveAndLoad() throws IOException {
     Path path = Path.of("./test-expenses.json");
 
-    Files.deleteIfExists(path);
+    TestFixtures.deleteWithJournals(path);
 
-    expenseTracker.save(path);
+    try {
+      expenseTracker.save(path);
 
-    ExpenseTracker newTracker = new ExpenseTracker();
+      ExpenseTracker newTracker = new ExpenseTracker();
 
-    newTracker.load(path);
+      newTracker.load(path);
 
-    assertEquals(
-      newTracker.getExpenses().toList().toString(),
-      expenseTracker.getExpenses().toList().toString()
-    );
+      assertEquals(
+        newTracker.getExpenses().toList().toString(),
+        expenseTracker.getExpenses().toList().toString()
+      );
+    } finally {
+      TestFixtures.deleteWithJournals(path);
+    }
+  }
+
+  @Test
+  void testConcurrentReadersAndWriters() throws InterruptedException {
+    ExpenseTracker tracker = new ExpenseTracker();
+    List<Thread> threads = new ArrayList<>();
+    List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+
+    for (int w = 0; w < 4; w++) {
+      int writer = w;
+      threads.add(new Thread(() -> {
+        for (int i = 0; i < 1_000; i++) {
+          Expense expense = new Expense(
+            LocalDate.parse("2025-01-01").plusDays(i % 50),
+            KnownCategory.KNOWN_CATEGORIES.get(writer),
+            BigDecimal.valueOf(i),
+            "Writer " + writer + " expense " + i
+          );
+          tracker.addExpense(expense);
+          if (i % 3 == 0) tracker.deleteExpense(expense);
+        }
+      }));
+    }
+    for (int r = 0; r < 4; r++) {
+      threads.add(new Thread(() -> {
+        try {
+          for (int i = 0; i < 500; i++) {
+            // every snapshot is consistent: ordered by date, and agreeing with its own category index
+            ExpenseTrackerView view = tracker.getExpenses();
+            List<Expense> expenses = view.toList();
+            for (int j = 1; j < expenses.size(); j++) {
+              assertFalse(expenses.get(j - 1).getDate().isAfter(expenses.get(j).getDate()));
+            }
+            int categorized = 0;
+            for (Category category : view.getCategories()) {
+              categorized += view.filterByCategory(category).toList().size();
+            }
+            assertEquals(expenses.size(), categorized);
+          }
+        } catch (Throwable e) {
+          failures.add(e);
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) thread.join();
+
+    assertEquals(List.of(), failures);
+    assertEquals(4 * (1_000 - 334), tracker.getExpenses().size());
   }
 
 }
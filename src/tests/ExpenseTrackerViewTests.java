@@ -1,6 +1,7 @@
 package tests;
 
 import model.*;
+import model.ExpenseTracker.UpdateResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -226,10 +227,11 @@ public final class ExpenseTrackerViewTests {
   }
 
   @Test
-  void testToList_ableToMutateContainedExpenses() {
+  void testToList_expensesCantChangeUnderneath() {
     Expense expense = expenseTrackerView.toList().getFirst();
-    expense.setAmount(BigDecimal.valueOf(1234_56, 2));
-    assertEquals(BigDecimal.valueOf(1234_56, 2), expenseTrackerView.toList().getFirst().getAmount());
+    BigDecimal amount = expense.getAmount();
+    expense.withAmount(BigDecimal.valueOf(1234_56, 2));
+    assertEquals(amount, expenseTrackerView.toList().getFirst().getAmount());
   }
 
   @Test
@@ -357,6 +359,154 @@ public final class ExpenseTrackerViewTests {
     ));
   }
 
+  @Test
+  void testFilterByDateRange_unsortedView() throws FilterException {
+    ExpenseTrackerView unsortedView = new ExpenseTrackerView(List.of(
+      new Expense(LocalDate.parse("2024-09-01"), KnownCategory.RENT, BigDecimal.valueOf(1200_00, 2), "All Start Ct"),
+      new Expense(LocalDate.parse("2024-08-02"), KnownCategory.GROCERIES, BigDecimal.valueOf(180_00, 2), "Loblaws"),
+      new Expense(LocalDate.parse("2024-08-20"), KnownCategory.DINING, BigDecimal.valueOf(12_00, 2), "A&W")
+    ));
+
+    ExpenseTrackerView augustExpenses = unsortedView.filterByDateRange(
+      LocalDate.parse("2024-08-01"),
+      LocalDate.parse("2024-08-31")
+    );
+
+    assertEquals(2, augustExpenses.size());
+    assertEquals("Loblaws", augustExpenses.getExpenseAt(0).getDescription());
+    assertEquals("A&W", augustExpenses.getExpenseAt(1).getDescription());
+  }
+
+  @Test
+  void testFilterByDateRange_boundariesFromTracker() throws FilterException {
+    ExpenseTracker tracker = new ExpenseTracker();
+    for (int day = 1; day <= 30; day++) {
+      for (int i = 0; i < 3; i++) {
+        tracker.addExpense(new Expense(
+          LocalDate.of(2024, 6, day),
+          KnownCategory.GROCERIES,
+          BigDecimal.valueOf(day * 100 + i, 2),
+          "Expense " + day + "/" + i
+        ));
+      }
+    }
+
+    ExpenseTrackerView view = tracker.getExpenses().filterByDateRange(LocalDate.parse("2024-06-10"), LocalDate.parse("2024-06-12"));
+    assertEquals(9, view.size());
+    assertEquals(LocalDate.parse("2024-06-10"), view.getExpenseAt(0).getDate());
+    assertEquals(LocalDate.parse("2024-06-12"), view.getExpenseAt(8).getDate());
+
+    ExpenseTrackerView narrowed = view.filterByDateRange(LocalDate.parse("2024-06-11"), LocalDate.parse("2024-07-31"));
+    assertEquals(6, narrowed.size());
+    assertEquals(LocalDate.parse("2024-06-11"), narrowed.getExpenseAt(0).getDate());
+
+    ExpenseTrackerView limited = narrowed.limitToAmount(4).filterByDateRange(LocalDate.parse("2024-06-12"), LocalDate.parse("2024-06-12"));
+    assertEquals(1, limited.size());
+    assertEquals("Expense 12/0", limited.getExpenseAt(0).getDescription());
+
+    assertThrows(NoResultsFilterException.class, () -> view.filterByDateRange(LocalDate.parse("2024-05-01"), LocalDate.parse("2024-06-09")));
+  }
+
+  @Test
+  void testLimitToAmount_cannotMutateView() throws FilterException {
+    List<Expense> expenses = expenseTrackerView.limitToAmount(2).toList();
+    assertThrows(UnsupportedOperationException.class, () -> expenses.removeFirst());
+    assertEquals(2, expenses.size());
+  }
+
+  @Test
+  void testFilterByCategory_equalCustomCategory() throws FilterException {
+    ExpenseTrackerView view = new ExpenseTrackerView(List.of(
+      new Expense(LocalDate.parse("2024-08-02"), new CustomCategory("Pets"), BigDecimal.valueOf(40_00, 2), "Cat food"),
+      new Expense(LocalDate.parse("2024-08-03"), KnownCategory.GROCERIES, BigDecimal.valueOf(80_00, 2), "Safeway")
+    ));
+
+    ExpenseTrackerView petExpenses = view.filterByCategory(Category.fromName("Pets"));
+    assertEquals(1, petExpenses.size());
+    assertEquals("Cat food", petExpenses.getExpenseAt(0).getDescription());
+  }
+
+  @Test
+  void testFilterByCategory_fromTracker() throws FilterException {
+    ExpenseTracker tracker = new ExpenseTracker();
+    for (int day = 1; day <= 28; day++) {
+      tracker.addExpense(new Expense(
+        LocalDate.of(2024, 2, day),
+        day % 2 == 0 ? KnownCategory.DINING : new CustomCategory("Pets"),
+        BigDecimal.valueOf(day * 100, 2),
+        "Expense " + day
+      ));
+    }
+
+    ExpenseTrackerView petExpenses = tracker.getExpenses().filterByCategory(Category.fromName("Pets"));
+    assertEquals(14, petExpenses.size());
+
+    ExpenseTrackerView dateThenCategory = tracker.getExpenses()
+      .filterByDateRange(LocalDate.parse("2024-02-05"), LocalDate.parse("2024-02-10"))
+      .filterByCategory(KnownCategory.DINING);
+    ExpenseTrackerView categoryThenDate = tracker.getExpenses()
+      .filterByCategory(KnownCategory.DINING)
+      .filterByDateRange(LocalDate.parse("2024-02-05"), LocalDate.parse("2024-02-10"));
+
+    assertEquals(3, dateThenCategory.size());
+    assertEquals(dateThenCategory.toList(), categoryThenDate.toList());
+    assertEquals(LocalDate.parse("2024-02-06"), dateThenCategory.getExpenseAt(0).getDate());
+
+    ExpenseTrackerView limited = tracker.getExpenses().limitToAmount(3).filterByCategory(KnownCategory.DINING);
+    assertEquals(1, limited.size());
+    assertEquals(LocalDate.parse("2024-02-02"), limited.getExpenseAt(0).getDate());
+
+    assertThrows(NoResultsFilterException.class, () -> tracker.getExpenses().filterByCategory(KnownCategory.RENT));
+    assertThrows(NoResultsFilterException.class, () -> tracker.getExpenses()
+      .filterByDateRange(LocalDate.parse("2024-02-01"), LocalDate.parse("2024-02-01"))
+      .filterByCategory(KnownCategory.DINING));
+  }
+
+  @Test
+  void testFilterByCategory_followsUpdate() throws FilterException {
+    ExpenseTracker tracker = new ExpenseTracker();
+    Expense oldExpense = new Expense(LocalDate.parse("2024-08-02"), KnownCategory.GROCERIES, BigDecimal.valueOf(40_00, 2), "Cat food");
+    tracker.addExpense(oldExpense);
+
+    Expense expense = oldExpense.withCategory(new CustomCategory("Pets"));
+    assertEquals(UpdateResult.UPDATED, tracker.update(oldExpense, expense));
+
+    assertEquals(List.of(expense), tracker.getExpenses().filterByCategory(Category.fromName("Pets")).toList());
+    assertThrows(NoResultsFilterException.class, () -> tracker.getExpenses().filterByCategory(KnownCategory.GROCERIES));
+    assertEquals(Set.of(new CustomCategory("Pets")), tracker.getExpenses().getCategories());
+  }
+
+  @Test
+  void testGetCategories_fromTracker() throws FilterException {
+    ExpenseTracker tracker = new ExpenseTracker();
+    tracker.addExpenses(expenseTrackerView.toList());
+
+    assertEquals(expenseTrackerView.getCategories(), tracker.getExpenses().getCategories());
+    assertEquals(
+      Set.of(KnownCategory.GROCERIES, KnownCategory.DINING),
+      tracker.getExpenses().filterByDateRange(LocalDate.parse("2024-08-01"), LocalDate.parse("2024-08-20")).getCategories()
+    );
+  }
+
+  @Test
+  void testGetTotal_fromTracker() throws FilterException {
+    ExpenseTracker tracker = new ExpenseTracker();
+    tracker.addExpenses(expenseTrackerView.toList());
+
+    assertEquals(expenseTrackerView.getTotal(), tracker.getExpenses().getTotal());
+    for (int limit = 1; limit <= expenseTrackerView.size(); limit++) {
+      assertEquals(expenseTrackerView.limitToAmount(limit).getTotal(), tracker.getExpenses().limitToAmount(limit).getTotal());
+    }
+    assertEquals(
+      expenseTrackerView.filterByDateRange(LocalDate.parse("2024-08-01"), LocalDate.parse("2024-08-20")).getTotal(),
+      tracker.getExpenses().filterByDateRange(LocalDate.parse("2024-08-01"), LocalDate.parse("2024-08-20")).getTotal()
+    );
+    assertEquals(
+      expenseTrackerView.filterByCategory(KnownCategory.DINING).getTotal(),
+      tracker.getExpenses().filterByCategory(KnownCategory.DINING).getTotal()
+    );
+  }
+
   @Test
   void testChainedFilters_categoryThenDate() throws FilterException {
     ExpenseTrackerView filteredExpenses = expenseTrackerView
@@ -402,4 +552,34 @@ public final class ExpenseTrackerViewTests {
     assertEquals("McDonald's", filteredExpenses.toList().getFirst().getDescription());
   }
 
+  @Test
+  void testFilters_largeUnorderedView() throws FilterException {
+    // large enough to be scanned in parallel, and out of date order so the date filter has to scan too
+    List<Expense> expenses = new ArrayList<>();
+    for (int i = 0; i < ParallelScan.THRESHOLD * 3; i++) {
+      expenses.add(new Expense(
+        LocalDate.parse("2024-01-01").plusDays((i * 37L) % 365),
+        i % 3 == 0 ? KnownCategory.DINING : KnownCategory.RENT,
+        BigDecimal.valueOf(i % 1_000, 2),
+        "Expense " + i
+      ));
+    }
+    ExpenseTrackerView view = new ExpenseTrackerView(expenses);
+    LocalDate start = LocalDate.parse("2024-03-01");
+    LocalDate end = LocalDate.parse("2024-04-15");
+
+    List<Expense> dining = expenses.stream().filter(expense -> expense.getCategory() == KnownCategory.DINING).toList();
+    List<Expense> inRange = expenses
+      .stream()
+      .filter(expense -> !expense.getDate().isBefore(start) && !expense.getDate().isAfter(end))
+      .toList();
+    assertEquals(dining, view.filterByCategory(KnownCategory.DINING).toList());
+    assertEquals(inRange, view.filterByDateRange(start, end).toList());
+    assertEquals(Set.of(KnownCategory.DINING, KnownCategory.RENT), view.getCategories());
+    assertEquals(
+      expenses.stream().map(Expense::getAmount).reduce(new BigDecimal("0.00"), BigDecimal::add),
+      view.getTotal()
+    );
+  }
+
 }
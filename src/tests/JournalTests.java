@@ -0,0 +1,289 @@
+package tests;
+
+import model.Category;
+import model.Expense;
+import model.ExpenseTracker;
+import model.KnownCategory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import persistence.BinaryPersistence;
+import persistence.Journal;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the Journal class, and how expense trackers use it when saving and loading
+ */
+public final class JournalTests {
+
+  private final Path path = Path.of("./test-journal.json");
+  private final Path binaryPath = Path.of("./test-journal" + BinaryPersistence.FILE_EXTENSION);
+
+  private ExpenseTracker tracker;
+  private Expense groceries;
+  private Expense bus;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    tearDown();
+
+    groceries = new Expense(
+      LocalDate.parse("2025-01-05"),
+      KnownCategory.GROCERIES,
+      BigDecimal.valueOf(87_50, 2),
+      "Safeway - weekly groceries"
+    );
+    bus = new Expense(
+      LocalDate.parse("2025-01-10"),
+      KnownCategory.TRANSPORTATION,
+      BigDecimal.valueOf(100_00, 2),
+      "Bus pass"
+    );
+
+    tracker = new ExpenseTracker();
+    tracker.addExpense(groceries);
+    tracker.addExpense(bus);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    Journal.awaitCompactions();
+    TestFixtures.deleteWithJournals(path, binaryPath);
+  }
+
+  private List<Expense> reload(Path file) throws IOException {
+    ExpenseTracker newTracker = new ExpenseTracker();
+    newTracker.load(file);
+    return newTracker.getExpenses().toList();
+  }
+
+  @Test
+  void testPathFor() {
+    assertEquals(Path.of("dir", "ledger.json.journal"), Journal.pathFor(Path.of("dir", "ledger.json")));
+    assertEquals(Path.of("dir", "ledger.json.journal.next"), Journal.nextPathFor(Path.of("dir", "ledger.json")));
+  }
+
+  @Test
+  void testSave_createsEmptyJournal() throws IOException {
+    tracker.save(path);
+
+    assertTrue(Files.exists(Journal.pathFor(path)));
+    assertEquals(tracker.getExpenses().toList(), reload(path));
+  }
+
+  @Test
+  void testSave_appendsInsteadOfRewriting() throws IOException {
+    tracker.save(path);
+    byte[] snapshot = Files.readAllBytes(path);
+    long journalSize = Files.size(Journal.pathFor(path));
+
+    Expense dinner = new Expense(LocalDate.parse("2025-01-08"), KnownCategory.DINING, new BigDecimal("42.10"), "Dinner");
+    tracker.addExpense(dinner);
+    tracker.deleteExpense(bus);
+    Expense bigShop = groceries.withAmount(new BigDecimal("90.00")).withCategory(Category.fromName("Journal Custom"));
+    tracker.update(groceries, bigShop);
+    tracker.update(bigShop, bigShop.withDescription("Safeway - big shop"));
+    tracker.save(path);
+
+    assertArrayEquals(snapshot, Files.readAllBytes(path));
+    assertTrue(Files.size(Journal.pathFor(path)) > journalSize);
+    assertEquals(tracker.getExpenses().toList(), reload(path));
+  }
+
+  @Test
+  void testSave_dateChangeAndReload() throws IOException {
+    tracker.save(binaryPath);
+
+    tracker.update(bus, bus.withDate(LocalDate.parse("2024-12-31")));
+    tracker.save(binaryPath);
+
+    List<Expense> reloaded = reload(binaryPath);
+    assertEquals(tracker.getExpenses().toList(), reloaded);
+    assertEquals(LocalDate.parse("2024-12-31"), reloaded.get(0).getDate());
+  }
+
+  @Test
+  void testLoad_thenSaveKeepsJournaling() throws IOException {
+    tracker.save(path);
+    tracker.addExpense(new Expense(LocalDate.parse("2025-02-01"), KnownCategory.RENT, BigDecimal.TEN, "Rent"));
+    tracker.save(path);
+
+    ExpenseTracker newTracker = new ExpenseTracker();
+    newTracker.load(path);
+    byte[] snapshot = Files.readAllBytes(path);
+    newTracker.deleteExpense(groceries);
+    newTracker.save(path);
+
+    assertArrayEquals(snapshot, Files.readAllBytes(path));
+    assertEquals(newTracker.getExpenses().toList(), reload(path));
+    assertEquals(2, reload(path).size());
+  }
+
+  @Test
+  void testSave_unsavedChangesAreNotKept() throws IOException {
+    tracker.save(path);
+    tracker.addExpense(new Expense(LocalDate.parse("2025-02-01"), KnownCategory.RENT, BigDecimal.TEN, "Unsaved"));
+
+    assertEquals(2, reload(path).size());
+  }
+
+  @Test
+  void testLoad_tornRecordIsDropped() throws IOException {
+    tracker.save(path);
+    tracker.addExpense(new Expense(LocalDate.parse("2025-02-01"), KnownCategory.RENT, BigDecimal.TEN, "Rent"));
+    tracker.save(path);
+    Files.write(Journal.pathFor(path), new byte[] { 0, 0, 0, 40, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+    ExpenseTracker newTracker = new ExpenseTracker();
+    newTracker.load(path);
+    assertEquals(tracker.getExpenses().toList(), newTracker.getExpenses().toList());
+
+    // the torn record is cut off before anything new is appended
+    newTracker.deleteExpense(bus);
+    newTracker.save(path);
+    assertEquals(newTracker.getExpenses().toList(), reload(path));
+  }
+
+  @Test
+  void testLoad_staleJournalIsIgnored() throws IOException {
+    tracker.save(path);
+    tracker.addExpense(new Expense(LocalDate.parse("2025-02-01"), KnownCategory.RENT, BigDecimal.TEN, "Rent"));
+    tracker.save(path);
+    byte[] journal = Files.readAllBytes(Journal.pathFor(path));
+
+    ExpenseTracker other = new ExpenseTracker();
+    other.addExpense(new Expense(LocalDate.parse("2020-01-01"), KnownCategory.HEALTH, BigDecimal.ONE, "Other"));
+    other.save(path);
+    Files.write(Journal.pathFor(path), journal);
+
+    assertEquals(other.getExpenses().toList(), reload(path));
+  }
+
+  @Test
+  void testLoad_mismatchedJournalThrows() throws IOException {
+    tracker.save(path);
+    long headerSize = Files.size(Journal.pathFor(path));
+    tracker.deleteExpense(bus);
+    tracker.save(path);
+    byte[] journal = Files.readAllBytes(Journal.pathFor(path));
+
+    // replay the deletion on top of a file that never had the deleted expense
+    ExpenseTracker other = new ExpenseTracker();
+    other.addExpense(new Expense(LocalDate.parse("2020-01-01"), KnownCategory.HEALTH, BigDecimal.ONE, "Other"));
+    other.save(path);
+    Files.write(
+      Journal.pathFor(path),
+      Arrays.copyOfRange(journal, (int) headerSize, journal.length),
+      StandardOpenOption.APPEND
+    );
+
+    assertThrows(IOException.class, () -> new ExpenseTracker().load(path));
+  }
+
+  @Test
+  void testSave_checkpointsAfterReplace() throws IOException {
+    tracker.save(path);
+    byte[] snapshot = Files.readAllBytes(path);
+    long headerSize = Files.size(Journal.pathFor(path));
+
+    tracker.replaceExpenses(List.of(
+      new Expense(LocalDate.parse("2025-03-01"), KnownCategory.TRAVEL, BigDecimal.ONE, "Replaced")
+    ));
+    tracker.save(path);
+
+    assertFalse(Arrays.equals(snapshot, Files.readAllBytes(path)));
+    assertEquals(headerSize, Files.size(Journal.pathFor(path)));
+    assertEquals(tracker.getExpenses().toList(), reload(path));
+  }
+
+  @Test
+  void testSave_compactsOnceJournalIsLarge() throws IOException {
+    tracker.save(path);
+    byte[] snapshot = Files.readAllBytes(path);
+
+    for (int i = 0; i < 30_000; i++) {
+      tracker.addExpense(new Expense(LocalDate.parse("2025-01-01"), KnownCategory.DINING, BigDecimal.ONE, "Coffee at the campus cafe " + i));
+      if (i % 1_000 == 0) tracker.save(path);
+    }
+    tracker.save(path);
+    Journal.awaitCompactions();
+
+    assertNotEquals(snapshot.length, Files.size(path));
+    assertTrue(Files.size(Journal.pathFor(path)) < Files.size(path));
+    assertFalse(Files.exists(Journal.nextPathFor(path)));
+    assertFalse(Files.exists(Path.of(path + ".tmp")));
+    assertEquals(tracker.getExpenses().toList(), reload(path));
+  }
+
+  @Test
+  void testSave_keepsJournalingDuringCompaction() throws IOException {
+    tracker.save(binaryPath);
+    for (int i = 0; i < 30_000; i++) {
+      tracker.addExpense(new Expense(LocalDate.parse("2025-01-01"), KnownCategory.DINING, BigDecimal.ONE, "Coffee at the campus cafe " + i));
+    }
+    tracker.save(binaryPath); // starts a compaction
+
+    for (int i = 0; i < 100; i++) {
+      tracker.addExpense(new Expense(LocalDate.parse("2025-02-01"), KnownCategory.RENT, BigDecimal.TEN, "Rent " + i));
+      tracker.deleteExpense(tracker.getExpenses().toList().get(0));
+      tracker.save(binaryPath);
+    }
+    assertEquals(tracker.getExpenses().toList(), reload(binaryPath));
+  }
+
+  @Test
+  void testLoad_interruptedCompaction() throws IOException {
+    tracker.save(path);
+    int headerSize = (int) Files.size(Journal.pathFor(path));
+    tracker.addExpense(new Expense(LocalDate.parse("2025-02-01"), KnownCategory.RENT, BigDecimal.TEN, "Rent"));
+    tracker.save(path);
+    byte[] main = Files.readAllBytes(Journal.pathFor(path));
+    tracker.deleteExpense(bus);
+    tracker.save(path);
+    byte[] journal = Files.readAllBytes(Journal.pathFor(path));
+
+    // a crash mid-compaction: the first change is in the main segment, the second in the next one
+    Files.write(Journal.pathFor(path), main);
+    Files.write(Journal.nextPathFor(path), Arrays.copyOf(journal, headerSize));
+    Files.write(
+      Journal.nextPathFor(path),
+      Arrays.copyOfRange(journal, main.length, journal.length),
+      StandardOpenOption.APPEND
+    );
+
+    ExpenseTracker newTracker = new ExpenseTracker();
+    newTracker.load(path);
+    assertEquals(tracker.getExpenses().toList(), newTracker.getExpenses().toList());
+
+    // the next save cleans up after the compaction
+    newTracker.save(path);
+    assertFalse(Files.exists(Journal.nextPathFor(path)));
+    assertEquals(tracker.getExpenses().toList(), reload(path));
+  }
+
+  @Test
+  void testSave_differentFileWritesSnapshot() throws IOException {
+    tracker.save(path);
+    tracker.addExpense(new Expense(LocalDate.parse("2025-02-01"), KnownCategory.RENT, BigDecimal.TEN, "Rent"));
+    tracker.save(binaryPath);
+
+    assertEquals(3, reload(binaryPath).size());
+    assertEquals(2, reload(path).size());
+  }
+
+}
@@ -0,0 +1,165 @@
+package tests;
+
+import model.Category;
+import model.Expense;
+import model.ExpenseTracker;
+import model.ExpenseTrackerView;
+import model.FilterException;
+import model.KnownCategory;
+import model.NoResultsFilterException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import persistence.BinaryPersistence;
+import persistence.Journal;
+import persistence.MappedExpenses;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the MappedExpenses class, and read-only expense tracker views over mapped files
+ */
+public final class MappedExpensesTests {
+
+  private final Path path = Path.of("./test-mapped-expenses" + BinaryPersistence.FILE_EXTENSION);
+  private ExpenseTracker tracker;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    TestFixtures.deleteWithJournals(path);
+
+    tracker = new ExpenseTracker();
+    tracker.replaceExpenses(TestFixtures.randomExpenses(210, 2_000, "Mapped Custom"));
+    tracker.save(path);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    TestFixtures.deleteWithJournals(path);
+  }
+
+  @Test
+  void testMapExpenseFile_matchesTracker() throws IOException {
+    MappedExpenses mapped = BinaryPersistence.mapExpenseFile(path);
+
+    assertEquals(tracker.getExpenses().size(), mapped.size());
+    assertTrue(mapped.isDateOrdered());
+    assertEquals(tracker.getExpenses().toList(), mapped);
+    assertEquals(tracker.getExpenses().toList().get(17).getDate(), mapped.getDate(17));
+  }
+
+  @Test
+  void testGet_decodesFreshExpenses() throws IOException {
+    MappedExpenses mapped = BinaryPersistence.mapExpenseFile(path);
+
+    assertEquals(mapped.get(3), mapped.get(3));
+    assertNotSame(mapped.get(3), mapped.get(3));
+    assertThrows(IndexOutOfBoundsException.class, () -> mapped.get(mapped.size()));
+  }
+
+  @Test
+  void testOpenReadOnly_filters() throws IOException, FilterException {
+    ExpenseTrackerView archive = ExpenseTracker.openReadOnly(path);
+    ExpenseTrackerView expected = tracker.getExpenses();
+
+    assertEquals(expected.getTotal(), archive.getTotal());
+    assertEquals(expected.getCategories(), archive.getCategories());
+
+    for (Category category : expected.getCategories()) {
+      ExpenseTrackerView filtered = archive.filterByCategory(category);
+      assertInstanceOf(MappedExpenses.class, filtered.toList());
+      assertEquals(expected.filterByCategory(category).toList(), filtered.toList());
+      assertEquals(expected.filterByCategory(category).getTotal(), filtered.getTotal());
+    }
+
+    LocalDate start = LocalDate.parse("2024-02-10");
+    LocalDate end = LocalDate.parse("2024-06-30");
+    assertEquals(
+      expected.filterByDateRange(start, end).toList(),
+      archive.filterByDateRange(start, end).toList()
+    );
+    assertEquals(
+      expected.filterByCategory(KnownCategory.GROCERIES).filterByDateRange(start, end).toList(),
+      archive.filterByCategory(KnownCategory.GROCERIES).filterByDateRange(start, end).toList()
+    );
+    assertEquals(
+      expected.filterByDateRange(start, end).filterByCategory(Category.fromName("mapped custom")).getCategories(),
+      archive.filterByDateRange(start, end).filterByCategory(Category.fromName("mapped custom")).getCategories()
+    );
+    assertEquals(expected.limitToAmount(10).toList(), archive.limitToAmount(10).toList());
+  }
+
+  @Test
+  void testOpenReadOnly_noResults() throws IOException {
+    ExpenseTrackerView archive = ExpenseTracker.openReadOnly(path);
+
+    assertThrows(NoResultsFilterException.class, () -> archive.filterByCategory(KnownCategory.PAYMENT));
+    assertThrows(
+      NoResultsFilterException.class,
+      () -> archive.filterByDateRange(LocalDate.parse("2030-01-01"), LocalDate.parse("2030-12-31"))
+    );
+  }
+
+  @Test
+  void testOpenReadOnly_unchangedBySaves() throws IOException {
+    ExpenseTrackerView archive = ExpenseTracker.openReadOnly(path);
+    List<Expense> before = List.copyOf(archive.toList());
+
+    tracker.addExpense(new Expense(LocalDate.parse("2025-01-01"), KnownCategory.TRAVEL, BigDecimal.ONE, "Later"));
+    Path other = Path.of("./test-mapped-expenses-other" + BinaryPersistence.FILE_EXTENSION);
+    tracker.save(other);
+    Files.delete(other);
+    Files.delete(Journal.pathFor(other));
+
+    assertEquals(before, archive.toList());
+  }
+
+  @Test
+  void testOpenReadOnly_notBinary() throws IOException {
+    Path json = Path.of("./test-mapped-expenses.json");
+    tracker.save(json);
+
+    assertThrows(IOException.class, () -> ExpenseTracker.openReadOnly(json));
+
+    Files.delete(json);
+    Files.delete(Journal.pathFor(json));
+  }
+
+  @Test
+  void testGetTotal_overflowingLongs() throws IOException {
+    ExpenseTracker big = new ExpenseTracker();
+    big.addExpense(new Expense(LocalDate.parse("2024-01-01"), KnownCategory.RENT, BigDecimal.valueOf(Long.MAX_VALUE, 2), "a"));
+    big.addExpense(new Expense(LocalDate.parse("2024-01-02"), KnownCategory.RENT, BigDecimal.valueOf(Long.MAX_VALUE, 2), "b"));
+    big.addExpense(new Expense(LocalDate.parse("2024-01-03"), KnownCategory.RENT, BigDecimal.valueOf(-5, 0), "c"));
+    big.save(path);
+
+    assertEquals(big.getExpenses().getTotal(), ExpenseTracker.openReadOnly(path).getTotal());
+  }
+
+  @Test
+  void testGetTotal_manyRows() throws IOException, FilterException {
+    // more rows than getTotal copies out of the file at a time, even after filtering, and a huge amount
+    ExpenseTracker many = new ExpenseTracker();
+    many.replaceExpenses(TestFixtures.randomExpenses(211, 25_000, "Mapped Custom"));
+    many.save(path);
+    ExpenseTrackerView archive = ExpenseTracker.openReadOnly(path);
+
+    assertEquals(many.getExpenses().getTotal(), archive.getTotal());
+    assertEquals(
+      many.getExpenses().filterByCategory(KnownCategory.RENT).getTotal(),
+      archive.filterByCategory(KnownCategory.RENT).getTotal()
+    );
+  }
+
+}
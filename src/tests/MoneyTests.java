@@ -0,0 +1,104 @@
+package tests;
+
+import model.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the Money class
+ */
+public final class MoneyTests {
+
+  @Test
+  void testToCents_bigDecimal() {
+    assertEquals(12_345, Money.toCents(new BigDecimal("123.45")));
+    assertEquals(500, Money.toCents(new BigDecimal("5")));
+    assertEquals(-150, Money.toCents(new BigDecimal("-1.500")));
+    assertEquals(100_000, Money.toCents(new BigDecimal("1E+3")));
+    assertEquals(Money.NOT_CENTS, Money.toCents(new BigDecimal("0.001")));
+    assertEquals(Money.NOT_CENTS, Money.toCents(new BigDecimal("1E+30")));
+    assertEquals(Money.NOT_CENTS, Money.toCents(null));
+  }
+
+  @Test
+  void testToCents_unscaled() {
+    assertEquals(12_345, Money.toCents(12_345, 2));
+    assertEquals(500, Money.toCents(5, 0));
+    assertEquals(-150, Money.toCents(-1_500, 3));
+    assertEquals(100_000, Money.toCents(1, -3));
+    assertEquals(0, Money.toCents(0, -100));
+    assertEquals(0, Money.toCents(0, 100));
+    assertEquals(Money.NOT_CENTS, Money.toCents(1, 3));
+    assertEquals(Money.NOT_CENTS, Money.toCents(1, -30));
+    assertEquals(Money.NOT_CENTS, Money.toCents(Long.MAX_VALUE / 10, 0));
+    assertEquals(Money.NOT_CENTS, Money.toCents(Long.MIN_VALUE / 10, 0));
+  }
+
+  @Test
+  void testFromCents() {
+    assertEquals(new BigDecimal("123.45"), Money.fromCents(12_345));
+    assertEquals(new BigDecimal("0.00"), Money.fromCents(0));
+  }
+
+  @Test
+  void testAdd_overflow() {
+    assertEquals(3, Money.add(1, 2));
+    assertEquals(Money.NOT_CENTS, Money.add(Long.MAX_VALUE, 1));
+    assertEquals(Money.NOT_CENTS, Money.add(Long.MIN_VALUE + 1, -1));
+    assertEquals(Money.NOT_CENTS, Money.add(Money.NOT_CENTS, 1));
+  }
+
+  @Test
+  void testSum_basic() {
+    Money.Sum sum = new Money.Sum();
+    assertEquals(new BigDecimal("0.00"), sum.toBigDecimal());
+
+    sum.add(new BigDecimal("10.25"));
+    sum.addCents(75);
+    assertEquals(new BigDecimal("11.00"), sum.toBigDecimal());
+  }
+
+  @Test
+  void testSum_notCentsAndOverflow() {
+    Money.Sum sum = new Money.Sum();
+    sum.addCents(Long.MAX_VALUE);
+    sum.addCents(Long.MAX_VALUE);
+    sum.add(new BigDecimal("0.001"));
+    sum.add(new BigDecimal("-5"));
+
+    BigDecimal expected = BigDecimal.valueOf(Long.MAX_VALUE, 2)
+      .multiply(BigDecimal.TWO)
+      .add(new BigDecimal("0.001"))
+      .subtract(new BigDecimal("5"));
+    assertEquals(expected, sum.toBigDecimal());
+  }
+
+  @Test
+  void testSum_addAllCents() {
+    Random random = new Random(27);
+    // lengths that leave every possible number of rows after the last full vector, small amounts and huge ones
+    for (int length = 0; length < 40; length++) {
+      long[] amounts = new long[length + 2];
+      for (int i = 0; i < amounts.length; i++) {
+        amounts[i] = length % 3 == 0 ? random.nextLong() : random.nextInt(2_000_000) - 1_000_000;
+      }
+      if (length % 4 == 1) amounts[length / 2 + 1] = Money.NOT_CENTS;
+
+      Money.Sum sum = new Money.Sum();
+      sum.addCents(12_34);
+      sum.addAllCents(amounts, 1, length + 1);
+
+      Money.Sum expected = new Money.Sum();
+      expected.addCents(12_34);
+      for (int i = 1; i < length + 1; i++) {
+        expected.addCents(amounts[i]);
+      }
+      assertEquals(expected.toBigDecimal(), sum.toBigDecimal());
+    }
+  }
+
+}
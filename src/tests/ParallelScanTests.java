@@ -0,0 +1,72 @@
+package tests;
+
+import model.ParallelScan;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the ParallelScan class
+ */
+public final class ParallelScanTests {
+
+  @Test
+  void testIsLarge() {
+    assertFalse(ParallelScan.isLarge(0));
+    assertFalse(ParallelScan.isLarge(ParallelScan.THRESHOLD));
+    assertTrue(ParallelScan.isLarge(ParallelScan.THRESHOLD + 1));
+  }
+
+  @Test
+  void testScan_smallRangeOnCallingThread() {
+    Thread caller = Thread.currentThread();
+    List<int[]> parts = ParallelScan.scan(5, 5 + ParallelScan.THRESHOLD, (from, to) -> {
+      assertSame(caller, Thread.currentThread());
+      return List.of(new int[] { from, to });
+    }, ParallelScanTests::concat);
+
+    assertEquals(1, parts.size());
+    assertArrayEquals(new int[] { 5, 5 + ParallelScan.THRESHOLD }, parts.getFirst());
+  }
+
+  @Test
+  void testScan_partsCombinedInOrder() {
+    int from = 3;
+    int to = from + ParallelScan.THRESHOLD * 5 + 7;
+    List<int[]> parts = ParallelScan.scan(from, to, (start, end) -> List.of(new int[] { start, end }), ParallelScanTests::concat);
+
+    assertTrue(parts.size() > 1);
+    int next = from;
+    for (int[] part : parts) {
+      assertEquals(next, part[0]);
+      assertTrue(part[1] - part[0] <= ParallelScan.THRESHOLD);
+      next = part[1];
+    }
+    assertEquals(to, next);
+  }
+
+  @Test
+  void testSelect_keepsOrder() {
+    int size = ParallelScan.THRESHOLD * 3 + 11;
+    int[] expected = IntStream.range(0, size).map(i -> size - i).filter(row -> row % 7 == 0).toArray();
+
+    assertArrayEquals(expected, ParallelScan.select(size, i -> size - i, row -> row % 7 == 0));
+    assertArrayEquals(new int[0], ParallelScan.select(size, i -> i, row -> false));
+    assertArrayEquals(new int[0], ParallelScan.select(0, i -> i, row -> true));
+  }
+
+  private static <T> List<T> concat(List<T> first, List<T> second) {
+    List<T> both = new ArrayList<>(first);
+    both.addAll(second);
+    return both;
+  }
+
+}
@@ -1,5 +1,6 @@
 package tests;
 
+import model.Category;
 import model.Expense;
 import model.ExpenseTracker;
 import model.KnownCategory;
@@ -17,6 +18,8 @@ import java.time.LocalDate;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -202,4 +205,80 @@ public final class PersistenceTests {
     Files.deleteIfExists(path);
   }
 
+  @Test
+  void testSaveToFile_replacesWholeFile() throws IOException {
+    Path path = Path.of("./test-persistence-atomic.json");
+    Path temporary = Path.of("./test-persistence-atomic.json.tmp");
+    Files.writeString(path, "not even json");
+
+    Persistence.saveExpenseTrackerToFile(tracker, path);
+
+    assertFalse(Files.exists(temporary));
+    ExpenseTracker newTracker = new ExpenseTracker();
+    Persistence.restoreExpenseTrackerFromFile(newTracker, path);
+    assertEquals(tracker.getExpenses().toList(), newTracker.getExpenses().toList());
+
+    // a save that fails part way leaves the old file as it was
+    String saved = Files.readString(path);
+    Files.createDirectory(temporary);
+    assertThrows(IOException.class, () -> Persistence.saveExpenseTrackerToFile(new ExpenseTracker(), path));
+    assertEquals(saved, Files.readString(path));
+
+    Files.deleteIfExists(temporary);
+    Files.deleteIfExists(path);
+  }
+
+  @Test
+  void testSaveToFile_matchesJsonArrayFormat() throws IOException {
+    Path path = Path.of("./test-persistence-format.json");
+    Files.deleteIfExists(path);
+
+    tracker.addExpense(new Expense(
+      LocalDate.parse("2025-02-01"),
+      Category.fromName("Odd </Category>"),
+      new BigDecimal("1.0E-10"),
+      "Quotes \", tabs \t, controls \u0001\u0085\u2028 and unicode \u00e9\u6f22"
+    ));
+    tracker.addExpense(new Expense(
+      LocalDate.parse("2025-02-02"),
+      KnownCategory.ENTERTAINMENT,
+      new BigDecimal("12.50"),
+      ""
+    ));
+
+    Persistence.saveExpenseTrackerToFile(tracker, path);
+
+    assertEquals(Persistence.encodeExpenseTracker(tracker).toString(), Files.readString(path));
+
+    ExpenseTracker newTracker = new ExpenseTracker();
+    Persistence.restoreExpenseTrackerFromFile(newTracker, path);
+    assertEquals(tracker.getExpenses().toList(), newTracker.getExpenses().toList());
+
+    Files.deleteIfExists(path);
+  }
+
+  @Test
+  void testRestoreFromFile_skipsUnknownKeys() throws IOException {
+    Path path = Path.of("./test-persistence-unknown.json");
+    Files.writeString(path, "[{\"id\":[1,{\"x\":null}],\"date\":\"2025-01-15\",\"amount\":45.00,"
+      + "\"description\":\"COSC 222 textbook\",\"category\":\"Education\"}]");
+
+    Persistence.restoreExpenseTrackerFromFile(tracker, path);
+
+    assertEquals(List.of(expense), tracker.getExpenses().toList());
+
+    Files.deleteIfExists(path);
+  }
+
+  @Test
+  void testRestoreFromFile_missingField() throws IOException {
+    Path path = Path.of("./test-persistence-missing.json");
+    Files.writeString(path, "[{\"date\":\"2025-01-15\",\"amount\":45.00,\"category\":\"Education\"}]");
+
+    assertThrows(IOException.class, () -> Persistence.restoreExpenseTrackerFromFile(tracker, path));
+    assertEquals(3, tracker.getExpenses().toList().size());
+
+    Files.deleteIfExists(path);
+  }
+
 }
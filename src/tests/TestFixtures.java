@@ -0,0 +1,55 @@
+package tests;
+
+import model.Category;
+import model.Expense;
+import model.KnownCategory;
+import persistence.Journal;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test fixtures - expenses and file clean-up shared by the tests of the views and the persistence classes
+ */
+final class TestFixtures {
+
+  private TestFixtures() { throw new AssertionError(); }
+
+  // MODIFIES: NOTHING
+  // EFFECTS: returns count random expenses (the same ones for the same seed) dated in the 400 days from 2024-01-01,
+  //          every fifth one in the custom category with the given name and the rest in the first four known
+  //          categories, every seventh amount with a scale of 3 and some descriptions with accents, followed by
+  //          a rent expense too big to fit in a long of cents and a whole-dollar one with an empty description
+  static List<Expense> randomExpenses(long seed, int count, String customCategory) {
+    List<Expense> expenses = new ArrayList<>();
+    Random random = new Random(seed);
+    for (int i = 0; i < count; i++) {
+      expenses.add(new Expense(
+        LocalDate.parse("2024-01-01").plusDays(random.nextInt(400)),
+        i % 5 == 0 ? Category.fromName(customCategory) : KnownCategory.KNOWN_CATEGORIES.get(random.nextInt(4)),
+        BigDecimal.valueOf(random.nextInt(100_000), i % 7 == 0 ? 3 : 2),
+        "Expense " + i + (i % 11 == 0 ? " café" : "")
+      ));
+    }
+    expenses.add(new Expense(LocalDate.parse("2024-03-01"), KnownCategory.RENT, new BigDecimal("1E+30"), "Huge"));
+    expenses.add(new Expense(LocalDate.parse("2024-03-02"), KnownCategory.RENT, BigDecimal.valueOf(5), ""));
+    return expenses;
+  }
+
+  // MODIFIES: the file system
+  // EFFECTS: deletes each of the given files along with its journal segments, whichever of them exist
+  static void deleteWithJournals(Path... files) throws IOException {
+    for (Path file : files) {
+      Files.deleteIfExists(file);
+      Files.deleteIfExists(Journal.pathFor(file));
+      Files.deleteIfExists(Journal.nextPathFor(file));
+    }
+  }
+
+}
@@ -94,26 +94,26 @@ public final class ConsoleUI {
     if (TRACKER.addExpense(expense)) {
       System.out.println("Expense added successfully.\n");
     } else {
-      throw new IllegalStateException("Failed to add duplicate expense in console UI, should be impossible");
+      System.out.println("That exact expense is already being tracked.\n");
     }
   }
 
   private static void viewAllExpenses() {
     System.out.println("\n=== All Expenses ===");
-    ExpenseTrackerView view = TRACKER.getExpenses();
-    displayExpenses(view.toList());
+    displayExpenses(TRACKER.getExpenses());
   }
 
   private static void editExpense() {
     System.out.println("\n=== Edit Expense ===");
-    List<Expense> expenses = TRACKER.getExpenses().toList();
+    ExpenseTrackerView view = TRACKER.getExpenses();
+    List<Expense> expenses = view.toList();
 
     if (expenses.isEmpty()) {
       System.out.println("No expenses to edit.\n");
       return;
     }
 
-    displayExpenses(expenses);
+    displayExpenses(view);
     int index = promptForExpenseNumber("Enter expense number to edit: ", expenses.size());
     if (index == -1) return;
 
@@ -127,42 +127,39 @@ public final class ConsoleUI {
     System.out.print("Enter choice: ");
     String choice = SCANNER.nextLine().trim();
 
-    switch (choice) {
-      case "1" -> {
-        LocalDate newDate = promptForDate("Enter new date (YYYY-MM-DD): ");
-        expense.setDate(newDate);
-        System.out.println("Date updated successfully.\n");
-      }
-      case "2" -> {
-        Category newCategory = promptForCategory();
-        expense.setCategory(newCategory);
-        System.out.println("Category updated successfully.\n");
-      }
-      case "3" -> {
-        BigDecimal newAmount = promptForAmount("Enter new amount: $");
-        expense.setAmount(newAmount);
-        System.out.println("Amount updated successfully.\n");
-      }
+    Expense updated = switch (choice) {
+      case "1" -> expense.withDate(promptForDate("Enter new date (YYYY-MM-DD): "));
+      case "2" -> expense.withCategory(promptForCategory());
+      case "3" -> expense.withAmount(promptForAmount("Enter new amount: $"));
       case "4" -> {
         System.out.print("Enter new description: ");
-        String newDescription = SCANNER.nextLine().trim();
-        expense.setDescription(newDescription);
-        System.out.println("Description updated successfully.\n");
+        yield expense.withDescription(SCANNER.nextLine().trim());
       }
-      default -> System.out.println("Invalid choice.\n");
+      default -> null;
+    };
+
+    if (updated == null) {
+      System.out.println("Invalid choice.\n");
+      return;
+    }
+    switch (TRACKER.update(expense, updated)) {
+      case UPDATED -> System.out.println("Expense updated successfully.\n");
+      case NOT_PRESENT -> System.out.println("That expense was changed or deleted meanwhile, nothing was updated.\n");
+      case DUPLICATE -> System.out.println("That exact expense is already being tracked.\n");
     }
   }
 
   private static void deleteExpense() {
     System.out.println("\n=== Delete Expense ===");
-    List<Expense> expenses = TRACKER.getExpenses().toList();
+    ExpenseTrackerView view = TRACKER.getExpenses();
+    List<Expense> expenses = view.toList();
 
     if (expenses.isEmpty()) {
       System.out.println("No expenses to delete.\n");
       return;
     }
 
-    displayExpenses(expenses);
+    displayExpenses(view);
     int index = promptForExpenseNumber("Enter expense number to delete: ", expenses.size());
     if (index == -1) return;
 
@@ -185,9 +182,9 @@ public final class ConsoleUI {
     System.out.println("\n=== View by Category ===");
     Category category = promptForCategory();
 
-    List<Expense> filteredExpenses = List.of();
+    ExpenseTrackerView filteredExpenses = new ExpenseTrackerView(List.of());
     try {
-      filteredExpenses = TRACKER.getExpenses().filterByCategory(category).toList();
+      filteredExpenses = TRACKER.getExpenses().filterByCategory(category);
       System.out.println("\n---- Expenses in " + category.getName() + " --------------------");
     } catch (FilterException e) {
       System.out.println("Failed to filter by category: " + e.getMessage() + "\n");
@@ -206,9 +203,9 @@ public final class ConsoleUI {
       return;
     }
 
-    List<Expense> filteredExpenses = List.of();
+    ExpenseTrackerView filteredExpenses = new ExpenseTrackerView(List.of());
     try {
-      filteredExpenses = TRACKER.getExpenses().filterByDateRange(startDate, endDate).toList();
+      filteredExpenses = TRACKER.getExpenses().filterByDateRange(startDate, endDate);
       System.out.println("\n---- Expenses from " + startDate + " to " + endDate + " --------------------");
     } catch (FilterException e) {
       System.out.println("Failed to filter by date range: " + e.getMessage() + "\n");
@@ -261,23 +258,21 @@ public final class ConsoleUI {
     }
   }
 
-  private static void displayExpenses(List<Expense> expenses) {
+  private static void displayExpenses(ExpenseTrackerView view) {
+    List<Expense> expenses = view.toList();
     if (expenses.isEmpty()) {
       System.out.println("No expenses found.\n");
       return;
     }
 
     System.out.println();
-    BigDecimal total = BigDecimal.ZERO;
-
-    for (int i = 0; i < expenses.size(); i++) {
-      Expense expense = expenses.get(i);
-      System.out.println((i + 1) + "\t| " + expense.toString());
-      total = total.add(expense.getAmount());
+    int number = 1;
+    for (Expense expense : expenses) {
+      System.out.println(number++ + "\t| " + expense.toString());
     }
 
     System.out.println("--------------------------------------------------");
-    System.out.println("Total: " + NumberFormat.getCurrencyInstance(Locale.CANADA).format(total));
+    System.out.println("Total: " + NumberFormat.getCurrencyInstance(Locale.CANADA).format(view.getTotal()));
     System.out.println("Count: " + expenses.size() + " expense" + (expenses.size() != 1 ? "s" : ""));
     System.out.println();
   }
@@ -326,7 +321,7 @@ public final class ConsoleUI {
           System.out.println("Amount must be non-negative.");
           continue;
         }
-        return amount.setScale(2, RoundingMode.HALF_UP);
+        return amount.setScale(Money.SCALE, RoundingMode.HALF_UP);
       } catch (NumberFormatException e) {
         System.out.println("Invalid amount. Please enter a valid number.");
       }
@@ -31,8 +31,12 @@ public final class SwingUI extends JFrame {
   private final ExpenseTracker tracker = new ExpenseTracker();
 
   private ExpenseTrackerView view = tracker.getExpenses();
+  // read-only archive being browsed instead of the tracker, or null
+  private transient ExpenseTrackerView archive = null;
 
   private final JLabel statusLabel = new JLabel(" ");
+  // disabled while an archive is shown, since saving writes the tracker, not the archive
+  private final JButton saveButton = new JButton("Save");
 
   private final JComboBox<Object> categoryFilterInput;
   private final JTextField startDateInput;
@@ -52,8 +56,8 @@ public final class SwingUI extends JFrame {
     setMinimumSize(new Dimension(800, 500));
     setLayout(new BorderLayout());
 
-    var saveButton = new JButton("Save");
     var loadButton = new JButton("Load");
+    var openArchiveButton = new JButton("Open Archive");
     var insertButton = new JButton("Insert");
     var deleteButton = new JButton("Delete");
     var filterButton = new JButton("Filter");
@@ -73,6 +77,7 @@ public final class SwingUI extends JFrame {
     toolbar.setFloatable(false);
     toolbar.add(saveButton);
     toolbar.add(loadButton);
+    toolbar.add(openArchiveButton);
     toolbar.addSeparator();
     toolbar.add(insertButton);
     toolbar.add(deleteButton);
@@ -107,6 +112,7 @@ public final class SwingUI extends JFrame {
 
     saveButton.addActionListener(e -> saveToFile());
     loadButton.addActionListener(e -> loadFromFile());
+    openArchiveButton.addActionListener(e -> openArchive());
     insertButton.addActionListener(e -> insertExpense());
     deleteButton.addActionListener(e -> deleteSelectedExpense(table));
     categoryFilterInput.addActionListener(e -> applyCategoryFilter());
@@ -118,7 +124,9 @@ public final class SwingUI extends JFrame {
       public void windowClosing(WindowEvent e) {
         int result = JOptionPane.showConfirmDialog(
           SwingUI.this,
-          "Save before quitting?",
+          archive != null
+            ? "Save your expenses (not the archive being shown) before quitting?"
+            : "Save before quitting?",
           "Quit",
           JOptionPane.YES_NO_CANCEL_OPTION
         );
@@ -210,6 +218,7 @@ public final class SwingUI extends JFrame {
     try {
       currentFilePath = chooser.getSelectedFile().toPath();
       tracker.load(currentFilePath);
+      archive = null;
       clearFilters();
     } catch (IOException e) {
       JOptionPane.showMessageDialog(
@@ -221,7 +230,31 @@ public final class SwingUI extends JFrame {
     }
   }
 
+  private void openArchive() {
+    var chooser = new JFileChooser();
+    chooser.setDialogTitle("Open Archive (read-only)");
+
+    if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+    try {
+      archive = ExpenseTracker.openReadOnly(chooser.getSelectedFile().toPath());
+      clearFilters();
+    } catch (IOException e) {
+      JOptionPane.showMessageDialog(
+        this,
+        "Failed to open archive: " + e.getMessage(),
+        "Open Archive Error",
+        JOptionPane.ERROR_MESSAGE
+      );
+    }
+  }
+
   private void insertExpense() {
+    if (archive != null) {
+      displayReadOnlyArchiveMessage();
+      return;
+    }
+
     var dateField = new JTextField(LocalDate.now().toString(), 12);
 
     var categoryField = new JComboBox<>(KnownCategory.values());
@@ -269,11 +302,18 @@ public final class SwingUI extends JFrame {
     BigDecimal amount = parseInputAmount(amountField.getText());
     if (amount == null) return;
 
-    tracker.addExpense(new Expense(date, category, amount, descriptionField.getText().trim()));
+    if (!tracker.addExpense(new Expense(date, category, amount, descriptionField.getText().trim()))) {
+      displayDuplicateExpenseMessage();
+    }
     resetView();
   }
 
   private void deleteSelectedExpense(JTable table) {
+    if (archive != null) {
+      displayReadOnlyArchiveMessage();
+      return;
+    }
+
     int selectedRow = table.getSelectedRow();
     if (selectedRow < 0) {
       JOptionPane.showMessageDialog(
@@ -304,7 +344,7 @@ public final class SwingUI extends JFrame {
     Object selected = categoryFilterInput.getSelectedItem();
     if (selected instanceof Category category) {
       try {
-        view = tracker.getExpenses().filterByCategory(category);
+        view = baseView().filterByCategory(category);
         refreshModel();
       } catch (FilterException e) {
         JOptionPane.showMessageDialog(
@@ -318,7 +358,7 @@ public final class SwingUI extends JFrame {
         // which hits the else branch
       }
     } else {
-      view = tracker.getExpenses();
+      view = baseView();
       refreshModel();
     }
   }
@@ -340,7 +380,7 @@ public final class SwingUI extends JFrame {
     }
 
     try {
-      view = tracker.getExpenses().filterByDateRange(startDate, endDate);
+      view = baseView().filterByDateRange(startDate, endDate);
     } catch (FilterException e) {
       JOptionPane.showMessageDialog(
         this,
@@ -365,41 +405,55 @@ public final class SwingUI extends JFrame {
   }
 
   private void resetView() {
-    view = tracker.getExpenses();
+    view = baseView();
     refreshModel();
   }
 
+  // everything the filters apply to, the open archive if there is one, otherwise the tracker
+  private ExpenseTrackerView baseView() {
+    return archive != null ? archive : tracker.getExpenses();
+  }
+
   private void updateStatus() {
-    var expenses = view.toList();
-    if (expenses.isEmpty()) {
+    saveButton.setEnabled(archive == null);
+    saveButton.setToolTipText(archive != null ? "Saving is disabled while a read-only archive is shown" : null);
+
+    if (view.isEmpty()) {
       statusLabel.setText("No expenses");
       return;
     }
 
-    BigDecimal total = expenses.stream()
-      .map(Expense::getAmount)
-      .reduce(BigDecimal.ZERO, BigDecimal::add);
-
     statusLabel.setText(String.format(
-      "%d expense%s  |  Total: %s",
-      expenses.size(),
-      expenses.size() != 1 ? "s" : "",
-      NumberFormat.getCurrencyInstance(Locale.CANADA).format(total)
+      "%d expense%s  |  Total: %s%s",
+      view.size(),
+      view.size() != 1 ? "s" : "",
+      NumberFormat.getCurrencyInstance(Locale.CANADA).format(view.getTotal()),
+      archive != null ? "  |  Read-only archive" : ""
     ));
   }
 
   private final class ExpenseTableModel extends AbstractTableModel {
+    // getValueAt is called once per cell, so keep the last row around instead of fetching it for every column
+    private int cachedRowIndex = -1;
+    private transient Expense cachedRow = null;
+
     private ExpenseTableModel() {
       refreshFromView();
     }
 
     private void refreshFromView() {
+      cachedRowIndex = -1;
+      cachedRow = null;
       fireTableDataChanged();
       updateStatus();
     }
 
     Expense getExpense(int rowIndex) {
-      return view.getExpenseAt(rowIndex);
+      if (rowIndex != cachedRowIndex) {
+        cachedRow = view.getExpenseAt(rowIndex);
+        cachedRowIndex = rowIndex;
+      }
+      return cachedRow;
     }
 
     @Override public int getRowCount() { return view.size(); }
@@ -427,7 +481,7 @@ public final class SwingUI extends JFrame {
       };
     }
 
-    @Override public boolean isCellEditable(int row, int col) { return true; }
+    @Override public boolean isCellEditable(int row, int col) { return archive == null; }
 
     @Override
     public Object getValueAt(int row, int col) {
@@ -447,34 +501,33 @@ public final class SwingUI extends JFrame {
       var expense = getExpense(row);
       if (expense == null) return;
 
-      switch (col) {
+      Expense updated = switch (col) {
         case 0 -> {
           LocalDate date = parseInputDate(value);
-          if (date != null) {
-            // delete + re-add to keep tracker sorted
-            tracker.deleteExpense(expense);
-            expense.setDate(date);
-            tracker.addExpense(expense);
-            SwingUtilities.invokeLater(SwingUI.this::resetView);
-          }
+          yield date != null ? expense.withDate(date) : null;
         }
         case 1 -> {
           Category category = parseInputCategory(value);
-          if (category != null) {
-            expense.setCategory(category);
-          }
+          yield category != null ? expense.withCategory(category) : null;
         }
         case 2 -> {
           BigDecimal amount = parseInputAmount(value);
-          if (amount != null) {
-            expense.setAmount(amount);
-          }
+          yield amount != null ? expense.withAmount(amount) : null;
+        }
+        case 3 -> expense.withDescription(String.valueOf(value).trim());
+        default -> null;
+      };
+      if (updated == null) return;
+
+      switch (tracker.update(expense, updated)) {
+        // the view is a snapshot from before the update
+        case UPDATED -> SwingUtilities.invokeLater(SwingUI.this::resetView);
+        case NOT_PRESENT -> {
+          displayExpenseGoneMessage();
+          SwingUtilities.invokeLater(SwingUI.this::resetView);
         }
-        case 3 -> expense.setDescription(String.valueOf(value).trim());
+        case DUPLICATE -> displayDuplicateExpenseMessage();
       }
-
-      fireTableCellUpdated(row, col);
-      updateStatus();
     }
 
     private static DefaultTableColumnModel createColumnModel() {
@@ -543,7 +596,7 @@ public final class SwingUI extends JFrame {
     if (input instanceof BigDecimal value) return value;
     var string = String.valueOf(input).trim().replace("$", "");
     try {
-      return new BigDecimal(string).setScale(2, RoundingMode.HALF_UP);
+      return new BigDecimal(string).setScale(Money.SCALE, RoundingMode.HALF_UP);
     } catch (NumberFormatException e) {
       displayInvalidAmountMessage(string);
       return null;
@@ -577,6 +630,33 @@ public final class SwingUI extends JFrame {
     );
   }
 
+  private void displayDuplicateExpenseMessage() {
+    JOptionPane.showMessageDialog(
+      this,
+      "That exact expense is already being tracked.",
+      "Duplicate Expense",
+      JOptionPane.WARNING_MESSAGE
+    );
+  }
+
+  private void displayExpenseGoneMessage() {
+    JOptionPane.showMessageDialog(
+      this,
+      "That expense was changed or deleted in the meantime, nothing was updated.",
+      "Expense Not Found",
+      JOptionPane.WARNING_MESSAGE
+    );
+  }
+
+  private void displayReadOnlyArchiveMessage() {
+    JOptionPane.showMessageDialog(
+      this,
+      "Archives are read-only, load the file instead to edit it.",
+      "Read-only Archive",
+      JOptionPane.WARNING_MESSAGE
+    );
+  }
+
   private void displayEmptyCategoryMessage() {
     JOptionPane.showMessageDialog(
       this,